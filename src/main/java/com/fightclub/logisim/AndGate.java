@@ -1,14 +1,12 @@
 package com.fightclub.logisim;
 import java.awt.*;
 import java.awt.geom.AffineTransform;
-import java.nio.channels.GatheringByteChannel;
-import java.util.ArrayList;
 
 /**
  * Représente une porte logique AND dans un circuit mémoire.
- * Cette porte hérite de MemoryComponent et définit son apparence graphique.
+ * Cette porte hérite de LogicGate et définit son apparence graphique.
  */
-public class AndGate extends MemoryComponent {
+public class AndGate extends LogicGate {
 
     // --------------constructeur--------------//
 
@@ -25,71 +23,33 @@ public class AndGate extends MemoryComponent {
      * @author Riyad Derguini
      */
     public AndGate(int id, int x, int y, Wire f1, Wire f2) {
-        // Appel du constructeur parent avec un identifiant unique et une position
-        // centrée
-        super(id, x, y);
-        this.type = ComponentType.AND; // Type de la porte
-        initConnectionPoints();
+        this(id, x, y, 2);
     }
 
-    // --------------méthodes--------------//
-
-    
-
     /**
-     * Initialise les points de connexion de la porte AND.
-     * Deux entrées et une sortie sont créées.
+     * Construit une porte AND à N entrées.
      * 
-     * @author Riyad Derguini
+     * @param id        identifiant unique de la porte
+     * @param x         position horizontale
+     * @param y         position verticale
+     * @param nbEntrees nombre d'entrées
      */
-    @Override
-    protected void initConnectionPoints() {
-        inputs = new ArrayList<>(2);
-        outputs = new ArrayList<>(1);
-        
-        // Positions de base (0 degré)
-        int baseX = getX();
-        int baseY = getY();
-        
-        switch(getRotationAngle()) {
-            case 0:
-                inputs.add(new ConnectionPoint(this, baseX, baseY + getHeight()/3, true));
-                inputs.add(new ConnectionPoint(this, baseX, baseY + 2*getHeight()/3, true));
-                outputs.add(new ConnectionPoint(this, baseX + getWidth(), baseY + getHeight()/2, false));
-                break;
-            case 90:
-                inputs.add(new ConnectionPoint(this, baseX + getWidth()/3, baseY, true));
-                inputs.add(new ConnectionPoint(this, baseX + 2*getWidth()/3, baseY, true));
-                outputs.add(new ConnectionPoint(this, baseX + getWidth()/2, baseY + getHeight(), false));
-                break;
-            case 180:
-                inputs.add(new ConnectionPoint(this, baseX + getWidth(), baseY + getHeight()/3, true));
-                inputs.add(new ConnectionPoint(this, baseX + getWidth(), baseY + 2*getHeight()/3, true));
-                outputs.add(new ConnectionPoint(this, baseX, baseY + getHeight()/2, false));
-                break;
-            case 270:
-                inputs.add(new ConnectionPoint(this, baseX + getWidth()/3, baseY + getHeight(), true));
-                inputs.add(new ConnectionPoint(this, baseX + 2*getWidth()/3, baseY + getHeight(), true));
-                outputs.add(new ConnectionPoint(this, baseX + getWidth()/2, baseY, false));
-                break;
-        }
+    public AndGate(int id, int x, int y, int nbEntrees) {
+        super(id, x, y, ComponentType.AND, nbEntrees, 0);
     }
 
+    // --------------méthodes--------------//
+
     /**
-     * Retourne la valeur de sortie de la porte AND.
-     * Elle est calculée en effectuant l'opération logique AND sur les deux entrées.
-     * Elle utilise la méthode andz de QuadBool pour effectuer l'opération, ensuite
-     * elle met à jour la valeur de sortie.
+     * Calcule la sortie de la porte AND : andz appliqué de gauche à droite sur
+     * toutes les entrées, la première gardant la priorité.
      * 
+     * @param entrees valeurs des entrées
      * @return valeur de sortie
-     * 
-     * @author Riyad Derguini
      */
     @Override
-    public void compute() {
-
-        outputs.get(0).getWire().setValue(inputs.get(0).getValue().andz(inputs.get(1).getValue()));
-
+    public QuadBool evaluer(QuadBool[] entrees) {
+        return QuadBool.and(entrees);
     }
 
     // -------partie graphique-------//
@@ -0,0 +1,328 @@
+package com.fightclub.logisim;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.StringReader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Mode ligne de commande : simule un circuit sauvegardé pour une suite de
+ * vecteurs d'entrée, sans ouvrir de fenêtre.
+ *
+ * <pre>
+ * MainApp simulate circuit.txt [--vectors entrees.csv] [--out resultats.csv]
+ * </pre>
+ *
+ * Le fichier de vecteurs contient une ligne par vecteur, les valeurs étant
+ * séparées par des virgules ou des points-virgules : 0, 1, Z (NOTHING), X
+ * (ERR), ou le nom d'une valeur de {@link QuadBool}. Une première ligne
+ * d'en-tête facultative nomme les colonnes (C + id de la constante) ; sans
+ * en-tête, les colonnes suivent l'ordre des constantes dans le fichier du
+ * circuit. Les lignes vides et celles commençant par # sont ignorées. Sans
+ * fichier de vecteurs, le circuit est simulé une fois avec ses propres valeurs.
+ *
+ * Le résultat reprend les entrées puis la valeur de chaque LED (L + id). Un
+ * vecteur pour lequel le circuit est instable donne « ! » pour toutes les
+ * sorties. Les vecteurs sont simulés par paquets de 64 avec
+ * {@link BitslicedSimulator} et le débit est affiché à la fin sur la sortie
+ * d'erreur. Le netlist est d'abord réduit par {@link NetlistOptimizer}, les
+ * entrées restant libres puisque chaque vecteur peut les changer.
+ */
+public class BatchRunner {
+
+    /** Caractère exporté pour chaque code de QuadBool. */
+    private static final char[] SYMBOLES = { 'Z', '0', '1', 'X' };
+
+    // -------------- ATTRIBUTS --------------//
+
+    private final CompiledNetlist netlist;
+    private final int portesSupprimees;
+    private final BitslicedSimulator simulateur;
+    private final QuadBool[][] lot = new QuadBool[BitslicedSimulator.LARGEUR][];
+    private int tailleLot;
+    private long nbVecteurs;
+    private long nbInstables;
+
+    // -------------- CONSTRUCTEUR --------------//
+
+    /**
+     * @param netlist le circuit à simuler
+     */
+    public BatchRunner(Netlist netlist) {
+        NetlistOptimizer optimiseur = new NetlistOptimizer(netlist.compiler());
+        this.netlist = optimiseur.optimiser();
+        this.portesSupprimees = optimiseur.getPortesSupprimees();
+        this.simulateur = new BitslicedSimulator(this.netlist);
+    }
+
+    // -------------- LIGNE DE COMMANDE --------------//
+
+    /**
+     * @param args circuit.txt [--vectors entrees.csv] [--out resultats.csv]
+     */
+    public static void main(String[] args) {
+        try {
+            System.exit(executer(args));
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Erreur : " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Analyse les arguments et lance la simulation.
+     *
+     * @return le code de sortie : 0 si tous les vecteurs sont stables, 2 sinon
+     * @throws IOException en cas d'erreur de lecture ou d'écriture
+     */
+    static int executer(String[] args) throws IOException {
+        String circuit = null;
+        String vecteurs = null;
+        String sortie = null;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--vectors" -> vecteurs = valeurOption(args, ++i);
+                case "--out" -> sortie = valeurOption(args, ++i);
+                default -> {
+                    if (circuit != null) {
+                        throw new IllegalArgumentException("Argument inattendu : " + args[i]);
+                    }
+                    circuit = args[i];
+                }
+            }
+        }
+        if (circuit == null) {
+            throw new IllegalArgumentException(
+                    "Usage : simulate circuit.txt [--vectors entrees.csv] [--out resultats.csv]");
+        }
+
+        BatchRunner runner = new BatchRunner(Netlist.importFromFile(new File(circuit)));
+        Writer writer = sortie != null
+                ? Files.newBufferedWriter(Path.of(sortie))
+                : new BufferedWriter(new OutputStreamWriter(System.out));
+        long debut = System.nanoTime();
+        try {
+            if (vecteurs != null) {
+                try (BufferedReader reader = Files.newBufferedReader(Path.of(vecteurs))) {
+                    runner.executer(reader, writer);
+                }
+            } else {
+                runner.executer(new BufferedReader(new StringReader("")), writer);
+            }
+        } finally {
+            if (sortie != null) {
+                writer.close();
+            } else {
+                writer.flush();
+            }
+        }
+        double secondes = (System.nanoTime() - debut) / 1e9;
+
+        System.err.printf("%d vecteurs en %.3f s (%.0f vecteurs/s), %d instables, %d portes supprimées%n",
+                runner.nbVecteurs, secondes, runner.nbVecteurs / secondes, runner.nbInstables,
+                runner.portesSupprimees);
+        return runner.nbInstables == 0 ? 0 : 2;
+    }
+
+    private static String valeurOption(String[] args, int i) {
+        if (i >= args.length) {
+            throw new IllegalArgumentException("Valeur manquante pour " + args[i - 1]);
+        }
+        return args[i];
+    }
+
+    // -------------- SIMULATION --------------//
+
+    /**
+     * Simule chaque vecteur lu et écrit les résultats au fur et à mesure. Sans
+     * aucun vecteur, simule une fois les valeurs courantes des constantes.
+     *
+     * @param reader vecteurs d'entrée
+     * @param writer destination des résultats
+     * @throws IOException en cas d'erreur de lecture ou d'écriture
+     */
+    public void executer(BufferedReader reader, Writer writer) throws IOException {
+        int nbEntrees = netlist.getNombreEntrees();
+        int[] colonnes = null; // colonnes[c] : indice de l'entrée lue dans la colonne c
+
+        ecrireEnTete(writer);
+        String ligne;
+        int numero = 0;
+        while ((ligne = reader.readLine()) != null) {
+            numero++;
+            ligne = ligne.trim();
+            if (ligne.isEmpty() || ligne.startsWith("#")) {
+                continue;
+            }
+            String[] champs = ligne.split("[,;]");
+            if (colonnes == null) {
+                colonnes = enTete(champs);
+                if (colonnes != null) {
+                    continue;
+                }
+                colonnes = new int[nbEntrees];
+                Arrays.setAll(colonnes, i -> i);
+            }
+            if (champs.length != colonnes.length) {
+                throw new IllegalArgumentException("Ligne " + numero + " : " + colonnes.length
+                        + " valeurs attendues, " + champs.length + " trouvées");
+            }
+
+            QuadBool[] vecteur = valeursParDefaut();
+            for (int c = 0; c < champs.length; c++) {
+                vecteur[colonnes[c]] = valeur(champs[c].trim(), numero);
+            }
+            lot[tailleLot++] = vecteur;
+            if (tailleLot == lot.length) {
+                vider(writer);
+            }
+        }
+        if (colonnes == null) {
+            lot[tailleLot++] = valeursParDefaut();
+        }
+        vider(writer);
+    }
+
+    /**
+     * Simule les vecteurs en attente et écrit leurs résultats.
+     */
+    private void vider(Writer writer) throws IOException {
+        if (tailleLot == 0) {
+            return;
+        }
+        QuadBool[][] vecteurs = Arrays.copyOf(lot, tailleLot);
+        QuadBool[][] resultats;
+        try {
+            resultats = simulateur.simuler(vecteurs);
+        } catch (CircuitInstableException e) {
+            // Un vecteur instable fait échouer tout le paquet : on le reprend vecteur par vecteur
+            resultats = new QuadBool[tailleLot][];
+            for (int v = 0; v < tailleLot; v++) {
+                resultats[v] = simulerSeul(vecteurs[v]);
+            }
+        }
+
+        StringBuilder sb = new StringBuilder();
+        for (int v = 0; v < tailleLot; v++) {
+            sb.setLength(0);
+            for (QuadBool entree : vecteurs[v]) {
+                sb.append(SYMBOLES[entree.code()]).append(',');
+            }
+            for (int o = 0; o < netlist.getNombreSorties(); o++) {
+                sb.append(resultats[v] == null ? '!' : SYMBOLES[resultats[v][o].code()]).append(',');
+            }
+            sb.setLength(Math.max(0, sb.length() - 1));
+            writer.write(sb.toString());
+            writer.write(System.lineSeparator());
+            if (resultats[v] == null) {
+                nbInstables++;
+            }
+        }
+        nbVecteurs += tailleLot;
+        tailleLot = 0;
+    }
+
+    /**
+     * @return les sorties du vecteur, ou null si le circuit est instable
+     */
+    private QuadBool[] simulerSeul(QuadBool[] vecteur) {
+        for (int i = 0; i < vecteur.length; i++) {
+            netlist.setEntree(i, vecteur[i]);
+        }
+        try {
+            netlist.simuler();
+        } catch (CircuitInstableException e) {
+            return null;
+        }
+        QuadBool[] sorties = new QuadBool[netlist.getNombreSorties()];
+        for (int o = 0; o < sorties.length; o++) {
+            sorties[o] = netlist.getSortie(o);
+        }
+        return sorties;
+    }
+
+    // -------------- FORMAT --------------//
+
+    private void ecrireEnTete(Writer writer) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < netlist.getNombreEntrees(); i++) {
+            sb.append('C').append(netlist.getConstante(i).getId()).append(',');
+        }
+        for (int o = 0; o < netlist.getNombreSorties(); o++) {
+            sb.append('L').append(netlist.getLed(o).getId()).append(',');
+        }
+        sb.setLength(Math.max(0, sb.length() - 1));
+        writer.write(sb.toString());
+        writer.write(System.lineSeparator());
+    }
+
+    /**
+     * @return l'indice d'entrée de chaque colonne si la ligne est un en-tête,
+     *         null si c'est déjà un vecteur
+     */
+    private int[] enTete(String[] champs) {
+        if (champs.length == 0 || !champs[0].trim().startsWith("C")) {
+            return null;
+        }
+        Map<String, Integer> indices = new HashMap<>();
+        for (int i = 0; i < netlist.getNombreEntrees(); i++) {
+            indices.put("C" + netlist.getConstante(i).getId(), i);
+        }
+        int[] colonnes = new int[champs.length];
+        for (int c = 0; c < champs.length; c++) {
+            Integer indice = indices.get(champs[c].trim());
+            if (indice == null) {
+                throw new IllegalArgumentException("Constante inconnue dans l'en-tête : " + champs[c].trim());
+            }
+            colonnes[c] = indice;
+        }
+        return colonnes;
+    }
+
+    /**
+     * @return les valeurs courantes des constantes, utilisées pour les colonnes absentes
+     */
+    private QuadBool[] valeursParDefaut() {
+        QuadBool[] vecteur = new QuadBool[netlist.getNombreEntrees()];
+        for (int i = 0; i < vecteur.length; i++) {
+            vecteur[i] = netlist.getConstante(i).getOutputValue();
+        }
+        return vecteur;
+    }
+
+    private static QuadBool valeur(String champ, int numero) {
+        switch (champ.toUpperCase()) {
+            case "0":
+                return QuadBool.FALSE;
+            case "1":
+                return QuadBool.TRUE;
+            case "Z":
+                return QuadBool.NOTHING;
+            case "X":
+                return QuadBool.ERR;
+            default:
+                try {
+                    return QuadBool.valueOf(champ.toUpperCase());
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("Ligne " + numero + " : valeur invalide « " + champ + " »");
+                }
+        }
+    }
+
+    // -------------- STATISTIQUES --------------//
+
+    public long getNombreVecteurs() {
+        return nbVecteurs;
+    }
+
+    public long getNombreInstables() {
+        return nbInstables;
+    }
+}
@@ -0,0 +1,296 @@
+package com.fightclub.logisim;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+/**
+ * Simulation d'un grand nombre de circuits sauvegardés, en parallèle, dans un
+ * seul processus.
+ *
+ * <pre>
+ * MainApp batch circuits/ autre.txt [--report rapport.txt] [--threads n]
+ * </pre>
+ *
+ * Chaque fichier (au format de {@link Netlist#exportAsText()}) est chargé,
+ * compilé et simulé dans sa propre tâche : sur un thread virtuel quand la JVM
+ * en propose (Java 21 et plus), sinon sur un pool borné au nombre de cœurs.
+ * Un répertoire désigne tous les fichiers .txt qu'il contient. Le rapport
+ * donne, pour chaque circuit, son statut, le nombre d'itérations, le temps
+ * de simulation et la valeur des LED. Chaque circuit n'étant simulé qu'une
+ * fois avec ses propres constantes, il est d'abord réduit par
+ * {@link NetlistOptimizer} avec toutes ses entrées figées.
+ */
+public class BatchService {
+
+    /** Caractère exporté pour chaque code de QuadBool. */
+    private static final char[] SYMBOLES = { 'Z', '0', '1', 'X' };
+
+    /** Issue de la simulation d'un circuit. */
+    public enum Statut {
+        STABLE,
+        INSTABLE,
+        ERREUR
+    }
+
+    /**
+     * Résultat de la simulation d'un fichier.
+     */
+    public static final class Resultat {
+        private final Path fichier;
+        private final Statut statut;
+        private final int iterations;
+        private final int portesSupprimees;
+        private final long dureeNanos;
+        private final String sorties;
+        private final String message;
+
+        Resultat(Path fichier, Statut statut, int iterations, int portesSupprimees, long dureeNanos, String sorties,
+                String message) {
+            this.fichier = fichier;
+            this.statut = statut;
+            this.iterations = iterations;
+            this.portesSupprimees = portesSupprimees;
+            this.dureeNanos = dureeNanos;
+            this.sorties = sorties;
+            this.message = message;
+        }
+
+        public Path getFichier() {
+            return fichier;
+        }
+
+        public Statut getStatut() {
+            return statut;
+        }
+
+        public int getIterations() {
+            return iterations;
+        }
+
+        /**
+         * @return le nombre de portes supprimées par l'optimisation avant simulation
+         */
+        public int getPortesSupprimees() {
+            return portesSupprimees;
+        }
+
+        public long getDureeNanos() {
+            return dureeNanos;
+        }
+
+        /**
+         * @return la valeur de chaque LED (0, 1, Z ou X), vide si le circuit n'est pas stable
+         */
+        public String getSorties() {
+            return sorties;
+        }
+
+        /**
+         * @return le détail de l'erreur ou de l'instabilité, null si le circuit est stable
+         */
+        public String getMessage() {
+            return message;
+        }
+    }
+
+    // -------------- ATTRIBUTS --------------//
+
+    private final int threads; // 0 : un thread virtuel par circuit si possible
+
+    // -------------- CONSTRUCTEUR --------------//
+
+    /**
+     * @param threads nombre de threads de calcul, ou 0 pour un thread virtuel
+     *                par circuit (un pool de la taille du nombre de cœurs si la
+     *                JVM n'a pas de threads virtuels)
+     */
+    public BatchService(int threads) {
+        this.threads = threads;
+    }
+
+    // -------------- LIGNE DE COMMANDE --------------//
+
+    /**
+     * @param args fichiers ou répertoires [--report rapport.txt] [--threads n]
+     */
+    public static void main(String[] args) {
+        List<Path> chemins = new ArrayList<>();
+        String rapport = null;
+        int threads = 0;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--report" -> rapport = valeurOption(args, ++i);
+                    case "--threads" -> threads = Integer.parseInt(valeurOption(args, ++i));
+                    default -> chemins.add(Path.of(args[i]));
+                }
+            }
+            if (chemins.isEmpty()) {
+                throw new IllegalArgumentException(
+                        "Usage : batch circuits... [--report rapport.txt] [--threads n]");
+            }
+
+            BatchService service = new BatchService(threads);
+            long debut = System.nanoTime();
+            List<Resultat> resultats = service.simuler(lister(chemins));
+            double secondes = (System.nanoTime() - debut) / 1e9;
+
+            if (rapport != null) {
+                try (Writer writer = Files.newBufferedWriter(Path.of(rapport))) {
+                    ecrireRapport(resultats, secondes, writer);
+                }
+            } else {
+                PrintWriter writer = new PrintWriter(System.out);
+                ecrireRapport(resultats, secondes, writer);
+                writer.flush();
+            }
+            boolean toutStable = resultats.stream().allMatch(r -> r.getStatut() == Statut.STABLE);
+            System.exit(toutStable ? 0 : 2);
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Erreur : " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    private static String valeurOption(String[] args, int i) {
+        if (i >= args.length) {
+            throw new IllegalArgumentException("Valeur manquante pour " + args[i - 1]);
+        }
+        return args[i];
+    }
+
+    /**
+     * Remplace chaque répertoire par les fichiers .txt qu'il contient, triés par nom.
+     */
+    static List<Path> lister(List<Path> chemins) throws IOException {
+        List<Path> fichiers = new ArrayList<>();
+        for (Path chemin : chemins) {
+            if (Files.isDirectory(chemin)) {
+                try (Stream<Path> contenu = Files.list(chemin)) {
+                    contenu.filter(f -> f.toString().endsWith(".txt") && Files.isRegularFile(f))
+                            .sorted()
+                            .forEach(fichiers::add);
+                }
+            } else {
+                fichiers.add(chemin);
+            }
+        }
+        return fichiers;
+    }
+
+    // -------------- SIMULATION --------------//
+
+    /**
+     * Simule tous les fichiers en parallèle.
+     *
+     * @param fichiers circuits sauvegardés
+     * @return un résultat par fichier, dans le même ordre
+     */
+    public List<Resultat> simuler(List<Path> fichiers) {
+        ExecutorService executor = creerExecutor();
+        try {
+            List<Future<Resultat>> taches = new ArrayList<>(fichiers.size());
+            for (Path fichier : fichiers) {
+                taches.add(executor.submit(() -> simuler(fichier)));
+            }
+            List<Resultat> resultats = new ArrayList<>(fichiers.size());
+            for (int i = 0; i < taches.size(); i++) {
+                try {
+                    resultats.add(taches.get(i).get());
+                } catch (ExecutionException e) {
+                    resultats.add(new Resultat(fichiers.get(i), Statut.ERREUR, 0, 0, 0, "", String.valueOf(e.getCause())));
+                }
+            }
+            return resultats;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Simulation interrompue", e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Charge, compile et simule un circuit.
+     *
+     * @param fichier circuit sauvegardé
+     * @return le résultat ; les erreurs de lecture ou de compilation donnent le statut ERREUR
+     */
+    public static Resultat simuler(Path fichier) {
+        long debut = System.nanoTime();
+        CompiledNetlist netlist;
+        NetlistOptimizer optimiseur;
+        try {
+            optimiseur = new NetlistOptimizer(Netlist.importFromFile(fichier.toFile()).compiler());
+            optimiseur.figerEntrees();
+            netlist = optimiseur.optimiser();
+        } catch (IOException | RuntimeException e) {
+            return new Resultat(fichier, Statut.ERREUR, 0, 0, System.nanoTime() - debut, "", e.toString());
+        }
+        try {
+            netlist.simuler();
+        } catch (CircuitInstableException e) {
+            return new Resultat(fichier, Statut.INSTABLE, netlist.getNombreIterations(),
+                    optimiseur.getPortesSupprimees(), System.nanoTime() - debut, "", e.getMessage());
+        }
+        StringBuilder sorties = new StringBuilder();
+        for (int o = 0; o < netlist.getNombreSorties(); o++) {
+            sorties.append(SYMBOLES[netlist.getSortie(o).code()]);
+        }
+        return new Resultat(fichier, Statut.STABLE, netlist.getNombreIterations(),
+                optimiseur.getPortesSupprimees(), System.nanoTime() - debut, sorties.toString(), null);
+    }
+
+    /**
+     * Crée l'exécuteur des tâches : un thread virtuel par tâche si possible,
+     * sinon un pool borné.
+     */
+    private ExecutorService creerExecutor() {
+        if (threads > 0) {
+            return Executors.newFixedThreadPool(threads);
+        }
+        try {
+            // Java 21 et plus ; appel par réflexion pour rester compilable avec Java 17
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        }
+    }
+
+    // -------------- RAPPORT --------------//
+
+    /**
+     * Écrit le rapport : une ligne par circuit (statut, itérations, portes
+     * supprimées par l'optimisation, temps en millisecondes, sorties ou
+     * message), puis les totaux.
+     *
+     * @param resultats résultats à présenter
+     * @param secondes  durée totale du traitement
+     * @param writer    destination
+     */
+    public static void ecrireRapport(List<Resultat> resultats, double secondes, Writer writer) {
+        PrintWriter out = writer instanceof PrintWriter pw ? pw : new PrintWriter(writer);
+        int[] parStatut = new int[Statut.values().length];
+        out.printf("%-40s %-9s %10s %10s %12s  %s%n", "Circuit", "Statut", "Itérations", "Supprimées", "Temps (ms)",
+                "Sorties");
+        for (Resultat r : resultats) {
+            parStatut[r.getStatut().ordinal()]++;
+            String detail = r.getStatut() == Statut.STABLE ? r.getSorties() : r.getMessage().replace('\n', ' ');
+            out.printf("%-40s %-9s %10d %10d %12.3f  %s%n", r.getFichier().getFileName(), r.getStatut(),
+                    r.getIterations(), r.getPortesSupprimees(), r.getDureeNanos() / 1e6, detail);
+        }
+        out.printf("%d circuits en %.3f s : %d stables, %d instables, %d erreurs%n", resultats.size(), secondes,
+                parStatut[Statut.STABLE.ordinal()], parStatut[Statut.INSTABLE.ordinal()],
+                parStatut[Statut.ERREUR.ordinal()]);
+        out.flush();
+    }
+}
@@ -0,0 +1,259 @@
+package com.fightclub.logisim;
+import java.util.Arrays;
+
+/**
+ * Simulation « bit-parallèle » d'un {@link CompiledNetlist} : 64 vecteurs
+ * d'entrée indépendants sont évalués en une seule passe.
+ *
+ * Chaque net est représenté par deux plans de 64 bits, un par bit du code de
+ * {@link QuadBool} : le plan « faux » (bit 0, la valeur peut être fausse) et le
+ * plan « vrai » (bit 1, la valeur peut être vraie). Le bit v de chaque plan
+ * décrit la valeur du net pour le vecteur v. Les opérations sup, andz et neg
+ * sont traduites en opérations bit à bit qui respectent exactement leur
+ * sémantique.
+ */
+public class BitslicedSimulator {
+
+    /** Nombre de vecteurs évalués par passe. */
+    public static final int LARGEUR = 64;
+
+    private final CompiledNetlist netlist;
+    private final long[] faux; // plan « peut être faux » de chaque net
+    private final long[] vrai; // plan « peut être vrai » de chaque net
+
+    /**
+     * @param netlist le netlist à simuler ; il n'est pas modifié
+     */
+    public BitslicedSimulator(CompiledNetlist netlist) {
+        this.netlist = netlist;
+        this.faux = new long[netlist.getNombreNets()];
+        this.vrai = new long[netlist.getNombreNets()];
+    }
+
+    // -------------- SIMULATION PAR LOTS --------------//
+
+    /**
+     * Simule un lot de vecteurs d'entrée, par paquets de {@link #LARGEUR}.
+     *
+     * @param vecteurs vecteurs[v][i] est la valeur de la constante i pour le vecteur v
+     * @return sorties[v][o], la valeur lue par la LED o pour le vecteur v
+     * @throws CircuitInstableException si la simulation ne converge pas pour un paquet
+     */
+    public QuadBool[][] simuler(QuadBool[][] vecteurs) throws CircuitInstableException {
+        int nbEntrees = netlist.getNombreEntrees();
+        int nbSorties = netlist.getNombreSorties();
+        QuadBool[][] resultats = new QuadBool[vecteurs.length][nbSorties];
+        long[] fauxEntrees = new long[nbEntrees];
+        long[] vraiEntrees = new long[nbEntrees];
+
+        for (int debut = 0; debut < vecteurs.length; debut += LARGEUR) {
+            int taille = Math.min(LARGEUR, vecteurs.length - debut);
+            Arrays.fill(fauxEntrees, 0L);
+            Arrays.fill(vraiEntrees, 0L);
+            for (int v = 0; v < taille; v++) {
+                for (int i = 0; i < nbEntrees; i++) {
+                    int code = vecteurs[debut + v][i].code();
+                    fauxEntrees[i] |= (long) (code & 1) << v;
+                    vraiEntrees[i] |= (long) (code >> 1) << v;
+                }
+            }
+
+            simulerPlans(fauxEntrees, vraiEntrees);
+
+            for (int o = 0; o < nbSorties; o++) {
+                long f = getPlanFaux(o);
+                long t = getPlanVrai(o);
+                for (int v = 0; v < taille; v++) {
+                    resultats[debut + v][o] = QuadBool.fromCode((int) ((f >>> v) & 1 | ((t >>> v) & 1) << 1));
+                }
+            }
+        }
+        return resultats;
+    }
+
+    // -------------- NOYAU --------------//
+
+    /**
+     * Simule 64 vecteurs donnés directement sous forme de plans de bits.
+     *
+     * @param fauxEntrees plan « faux » de chaque entrée
+     * @param vraiEntrees plan « vrai » de chaque entrée
+     * @throws CircuitInstableException si la simulation ne converge pas
+     */
+    public void simulerPlans(long[] fauxEntrees, long[] vraiEntrees) throws CircuitInstableException {
+        Arrays.fill(faux, 0L);
+        Arrays.fill(vrai, 0L);
+        int[] netsEntrees = netlist.netsEntrees;
+        for (int i = 0; i < netsEntrees.length; i++) {
+            faux[netsEntrees[i]] = fauxEntrees[i];
+            vrai[netsEntrees[i]] = vraiEntrees[i];
+        }
+        // L'état des registres est le même pour les 64 vecteurs
+        for (int k = 0; k < netlist.netsEtats.length; k++) {
+            int code = netlist.getEtat(k).code();
+            faux[netlist.netsEtats[k]] = (code & 1) != 0 ? -1L : 0L;
+            vrai[netlist.netsEtats[k]] = (code & 2) != 0 ? -1L : 0L;
+        }
+        for (int k = 0; k < netlist.netsConstantes.length; k++) {
+            int code = netlist.valeursConstantes[k];
+            faux[netlist.netsConstantes[k]] = (code & 1) != 0 ? -1L : 0L;
+            vrai[netlist.netsConstantes[k]] = (code & 2) != 0 ? -1L : 0L;
+        }
+
+        if (netlist.acyclique) {
+            passe(0, netlist.getNombrePortes());
+            return;
+        }
+        // Comme le noyau scalaire : seules les composantes formant une boucle sont itérées
+        int[] debutComposantes = netlist.debutComposantes;
+        for (int c = 0; c < netlist.boucles.length; c++) {
+            int debut = debutComposantes[c];
+            int fin = debutComposantes[c + 1];
+            int i = 0;
+            while (passe(debut, fin) && netlist.boucles[c]) {
+                if (++i >= Circuit.MAX_ITERATIONS) {
+                    throw new CircuitInstableException("Pas de point fixe après " + Circuit.MAX_ITERATIONS + " itérations");
+                }
+            }
+        }
+    }
+
+    /**
+     * Évalue une fois les portes [debut, fin) sur les 64 vecteurs.
+     *
+     * @return true si au moins un net a changé pour au moins un vecteur
+     */
+    private boolean passe(int premiere, int derniere) {
+        byte[] opcodes = netlist.opcodes;
+        int[] debutEntrees = netlist.debutEntrees;
+        int[] entrees = netlist.entrees;
+        int[] sorties = netlist.sorties;
+        boolean change = false;
+
+        for (int p = premiere; p < derniere; p++) {
+            int debut = debutEntrees[p];
+            long fa = faux[entrees[debut]];
+            long ta = vrai[entrees[debut]];
+            long fb = 0L;
+            long tb = 0L;
+            if (debutEntrees[p + 1] - debut > 1) {
+                fb = faux[entrees[debut + 1]];
+                tb = vrai[entrees[debut + 1]];
+            }
+
+            long rf, rt;
+            switch (opcodes[p]) {
+                case CompiledNetlist.OP_AND:
+                    rf = andzFaux(fa, ta, fb, tb);
+                    rt = andzVrai(fa, ta, fb, tb);
+                    break;
+                case CompiledNetlist.OP_NAND: {
+                    long xf = andzFaux(fa, ta, fb, tb);
+                    long xt = andzVrai(fa, ta, fb, tb);
+                    rf = negFaux(xf, xt);
+                    rt = negVrai(xf, xt);
+                    break;
+                }
+                case CompiledNetlist.OP_OR:
+                case CompiledNetlist.OP_NOR: {
+                    // neg(neg(a) andz neg(b)), et sa négation pour NOR
+                    long naf = negFaux(fa, ta), nat = negVrai(fa, ta);
+                    long nbf = negFaux(fb, tb), nbt = negVrai(fb, tb);
+                    long xf = andzFaux(naf, nat, nbf, nbt);
+                    long xt = andzVrai(naf, nat, nbf, nbt);
+                    rf = negFaux(xf, xt);
+                    rt = negVrai(xf, xt);
+                    if (opcodes[p] == CompiledNetlist.OP_NOR) {
+                        xf = rf;
+                        rf = negFaux(rf, rt);
+                        rt = negVrai(xf, rt);
+                    }
+                    break;
+                }
+                case CompiledNetlist.OP_XOR:
+                case CompiledNetlist.OP_XNOR: {
+                    // (a andz neg(b)) sup (b andz neg(a)), et sa négation pour XNOR
+                    long naf = negFaux(fa, ta), nat = negVrai(fa, ta);
+                    long nbf = negFaux(fb, tb), nbt = negVrai(fb, tb);
+                    rf = andzFaux(fa, ta, nbf, nbt) | andzFaux(fb, tb, naf, nat);
+                    rt = andzVrai(fa, ta, nbf, nbt) | andzVrai(fb, tb, naf, nat);
+                    if (opcodes[p] == CompiledNetlist.OP_XNOR) {
+                        long xf = rf;
+                        rf = negFaux(rf, rt);
+                        rt = negVrai(xf, rt);
+                    }
+                    break;
+                }
+                case CompiledNetlist.OP_NOT:
+                    rf = negFaux(fa, ta);
+                    rt = negVrai(fa, ta);
+                    break;
+                case CompiledNetlist.OP_SUP:
+                    // Le supremum est un OU bit à bit des deux plans
+                    rf = fa | fb;
+                    rt = ta | tb;
+                    break;
+                default:
+                    rf = -1L;
+                    rt = -1L;
+            }
+
+            int s = sorties[p];
+            if (faux[s] != rf || vrai[s] != rt) {
+                faux[s] = rf;
+                vrai[s] = rt;
+                change = true;
+            }
+        }
+        return change;
+    }
+
+    // -------------- OPÉRATIONS BIT À BIT --------------//
+    // NOTHING = (0, 0), FALSE = (1, 0), TRUE = (0, 1), ERR = (1, 1) ; sup = OU des plans.
+
+    /** neg : TRUE et FALSE s'échangent, NOTHING et ERR donnent ERR. */
+    private static long negFaux(long f, long t) {
+        return t | ~(f ^ t);
+    }
+
+    private static long negVrai(long f, long t) {
+        return f | ~(f ^ t);
+    }
+
+    /**
+     * andz : si a = TRUE, b (ERR si b = NOTHING) ; si a = FALSE, FALSE (ERR si
+     * b = ERR) ; sinon ERR. Le résultat peut être faux dès que a n'est pas TRUE.
+     */
+    private static long andzFaux(long fa, long ta, long fb, long tb) {
+        long aVrai = ta & ~fa;
+        return ~aVrai | fb | ~(fb | tb);
+    }
+
+    private static long andzVrai(long fa, long ta, long fb, long tb) {
+        long aVrai = ta & ~fa;
+        long aFaux = fa & ~ta;
+        return aVrai & (tb | ~(fb | tb)) | aFaux & fb & tb | ~(fa ^ ta);
+    }
+
+    // -------------- RÉSULTATS --------------//
+
+    /**
+     * @param o indice de la sortie (LED)
+     * @return le plan « faux » de la sortie o après la dernière simulation
+     */
+    public long getPlanFaux(int o) {
+        return faux[netlist.netsSorties[o]];
+    }
+
+    /**
+     * @param o indice de la sortie (LED)
+     * @return le plan « vrai » de la sortie o après la dernière simulation
+     */
+    public long getPlanVrai(int o) {
+        return vrai[netlist.netsSorties[o]];
+    }
+
+    public CompiledNetlist getNetlist() {
+        return netlist;
+    }
+}
@@ -0,0 +1,41 @@
+package com.fightclub.logisim;
+import java.util.List;
+
+/**
+ * Moteur de simulation s'appuyant sur un {@link BytecodeSimulator} : le
+ * circuit est compilé en classe Java à la première simulation, puis
+ * recompilé uniquement lorsque sa structure a changé. Un circuit contenant
+ * une boucle est simulé par le noyau interprété de {@link CompiledNetlist}.
+ */
+public class BytecodeEngine implements SimulationEngine {
+
+    private CompiledNetlist netlist;
+    private BytecodeSimulator simulateur; // null si le netlist contient une boucle
+
+    @Override
+    public void simuler(List<MemoryComponent> components, List<Wire> wires) throws CircuitInstableException {
+        if (netlist == null) {
+            netlist = CompiledNetlist.compiler(components, wires);
+            simulateur = netlist.isAcyclique() ? BytecodeSimulator.compiler(netlist) : null;
+        } else {
+            netlist.chargerEntrees();
+        }
+        if (simulateur != null) {
+            simulateur.simuler();
+        } else {
+            netlist.simuler();
+        }
+        netlist.appliquer();
+    }
+
+    @Override
+    public void invalider() {
+        netlist = null;
+        simulateur = null;
+    }
+
+    @Override
+    public String toString() {
+        return "Bytecode";
+    }
+}
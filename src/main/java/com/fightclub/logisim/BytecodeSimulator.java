@@ -0,0 +1,331 @@
+package com.fightclub.logisim;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compilation d'un {@link CompiledNetlist} acyclique en une classe Java
+ * générée à l'exécution.
+ *
+ * Chaque porte devient une suite d'instructions sans branchement qui lit ses
+ * entrées dans le tableau des valeurs, consulte la table de vérité de son
+ * opération et écrit sa sortie, dans l'ordre topologique. Le bytecode est
+ * écrit directement (sans bibliothèque externe) puis chargé comme classe
+ * cachée avec {@link MethodHandles.Lookup#defineHiddenClass}. Les portes sont
+ * réparties en méthodes de moins de 8000 octets, taille au-delà de laquelle la
+ * JVM ne compile pas une méthode ; le JIT peut ensuite les compiler et les
+ * enchaîner comme du code écrit à la main.
+ */
+public final class BytecodeSimulator {
+
+    /**
+     * Code généré pour un netlist : évalue toutes les portes une fois.
+     */
+    public interface Noyau {
+        /**
+         * @param valeurs valeurs des nets, entrées déjà chargées
+         * @param tables  tables de vérité, indexées par code opération
+         */
+        void evaluer(byte[] valeurs, byte[][] tables);
+    }
+
+    /** Taille maximale du code d'une méthode générée, sous la limite du JIT (8000 octets). */
+    private static final int TAILLE_MAX_METHODE = 7000;
+
+    private static final String NOM_CLASSE = "com/fightclub/logisim/CircuitCompile";
+    private static final String DESCRIPTEUR = "([B[[B)V";
+
+    private final CompiledNetlist netlist;
+    private final Noyau noyau;
+
+    private BytecodeSimulator(CompiledNetlist netlist, Noyau noyau) {
+        this.netlist = netlist;
+        this.noyau = noyau;
+    }
+
+    // -------------- COMPILATION --------------//
+
+    /**
+     * Génère et charge la classe évaluant le netlist.
+     *
+     * @param netlist un netlist acyclique
+     * @return le simulateur compilé
+     * @throws IllegalArgumentException si le netlist contient une boucle
+     * @throws IllegalStateException    si la classe générée ne peut pas être chargée
+     */
+    public static BytecodeSimulator compiler(CompiledNetlist netlist) {
+        if (!netlist.acyclique) {
+            throw new IllegalArgumentException("Seul un netlist acyclique peut être compilé en bytecode");
+        }
+        byte[] classe = generer(netlist);
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup().defineHiddenClass(classe, true);
+            Noyau noyau = (Noyau) lookup.findConstructor(lookup.lookupClass(), MethodType.methodType(void.class))
+                    .invoke();
+            return new BytecodeSimulator(netlist, noyau);
+        } catch (Throwable e) {
+            throw new IllegalStateException("Chargement du code généré impossible", e);
+        }
+    }
+
+    // -------------- SIMULATION --------------//
+
+    /**
+     * Simule le netlist à partir des valeurs d'entrée qu'il contient (voir
+     * {@link CompiledNetlist#chargerEntrees()} et {@link CompiledNetlist#setEntree}).
+     * Les résultats se lisent avec {@link CompiledNetlist#getSortie(int)}.
+     */
+    public void simuler() {
+        netlist.initialiser();
+        noyau.evaluer(netlist.valeurs, CompiledNetlist.TABLES);
+    }
+
+    public CompiledNetlist getNetlist() {
+        return netlist;
+    }
+
+    // -------------- GÉNÉRATION DU BYTECODE --------------//
+
+    /**
+     * Écrit le fichier .class : un constructeur, la méthode {@code evaluer} qui
+     * appelle dans l'ordre les méthodes statiques {@code b0, b1, ...}, chacune
+     * évaluant une tranche de portes.
+     */
+    private static byte[] generer(CompiledNetlist netlist) {
+        List<byte[]> tranches = new ArrayList<>();
+        Code code = new Code();
+        for (int p = 0; p < netlist.getNombrePortes(); p++) {
+            porte(code, netlist, p);
+            if (code.taille() > TAILLE_MAX_METHODE) {
+                tranches.add(code.terminer());
+                code = new Code();
+            }
+        }
+        if (code.taille() > 0 || tranches.isEmpty()) {
+            tranches.add(code.terminer());
+        }
+
+        Constantes pool = new Constantes();
+        int classe = pool.classe(NOM_CLASSE);
+        int object = pool.classe("java/lang/Object");
+        int interfaceNoyau = pool.classe("com/fightclub/logisim/BytecodeSimulator$Noyau");
+        int constructeurObject = pool.methode(object, "<init>", "()V");
+        int attributCode = pool.utf8("Code");
+        pool.utf8("evaluer"); // le pool est écrit avant les méthodes : tous les noms doivent y être
+        int[] appels = new int[tranches.size()];
+        for (int k = 0; k < appels.length; k++) {
+            appels[k] = pool.methode(classe, "b" + k, DESCRIPTEUR);
+        }
+
+        ByteArrayOutputStream octets = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(octets)) {
+            out.writeInt(0xCAFEBABE);
+            out.writeShort(0);
+            out.writeShort(61); // Java 17
+            pool.ecrire(out);
+            out.writeShort(0x0031); // public final super
+            out.writeShort(classe);
+            out.writeShort(object);
+            out.writeShort(1);
+            out.writeShort(interfaceNoyau);
+            out.writeShort(0); // aucun champ
+            out.writeShort(2 + tranches.size());
+
+            // public <init>() { super(); }
+            byte[] init = { 0x2A, (byte) 0xB7, (byte) (constructeurObject >> 8), (byte) constructeurObject, (byte) 0xB1 };
+            methode(out, pool, 0x0001, "<init>", "()V", attributCode, 1, 1, init);
+
+            // public void evaluer(byte[] v, byte[][] t) { b0(v, t); b1(v, t); ... }
+            ByteArrayOutputStream evaluer = new ByteArrayOutputStream();
+            for (int appel : appels) {
+                evaluer.write(0x2B); // aload_1
+                evaluer.write(0x2C); // aload_2
+                evaluer.write(0xB8); // invokestatic
+                evaluer.write(appel >> 8);
+                evaluer.write(appel);
+            }
+            evaluer.write(0xB1); // return
+            methode(out, pool, 0x0001, "evaluer", DESCRIPTEUR, attributCode, 2, 3, evaluer.toByteArray());
+
+            // private static void bk(byte[] v, byte[][] t)
+            for (int k = 0; k < tranches.size(); k++) {
+                methode(out, pool, 0x000A, "b" + k, DESCRIPTEUR, attributCode, Code.PILE_MAX, Code.LOCALES,
+                        tranches.get(k));
+            }
+            out.writeShort(0); // aucun attribut de classe
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // impossible en mémoire
+        }
+        return octets.toByteArray();
+    }
+
+    /**
+     * Ajoute le code d'une porte : v[sortie] = t[op][v[a] << 2 | v[b]].
+     */
+    private static void porte(Code code, CompiledNetlist netlist, int p) {
+        int debut = netlist.debutEntrees[p];
+        code.op(0x2A); // aload_0 (v)
+        code.entier(netlist.sorties[p]);
+        code.op(0x19); // aload
+        code.op(Code.PREMIERE_TABLE + netlist.opcodes[p]);
+        code.op(0x2A);
+        code.entier(netlist.entrees[debut]);
+        code.op(0x33); // baload
+        code.op(0x05); // iconst_2
+        code.op(0x78); // ishl
+        if (netlist.debutEntrees[p + 1] - debut > 1) {
+            code.op(0x2A);
+            code.entier(netlist.entrees[debut + 1]);
+            code.op(0x33); // baload
+            code.op(0x80); // ior
+        }
+        code.op(0x33); // baload (table)
+        code.op(0x54); // bastore
+    }
+
+    private static void methode(DataOutputStream out, Constantes pool, int acces, String nom, String descripteur,
+            int attributCode, int pileMax, int locales, byte[] code) throws IOException {
+        out.writeShort(acces);
+        out.writeShort(pool.utf8(nom));
+        out.writeShort(pool.utf8(descripteur));
+        out.writeShort(1);
+        out.writeShort(attributCode);
+        out.writeInt(12 + code.length);
+        out.writeShort(pileMax);
+        out.writeShort(locales);
+        out.writeInt(code.length);
+        out.write(code);
+        out.writeShort(0); // aucune exception
+        out.writeShort(0); // aucun attribut
+    }
+
+    /**
+     * Corps d'une méthode de tranche. Les tables de toutes les opérations sont
+     * d'abord rangées dans les variables locales, à partir de la 2e.
+     */
+    private static final class Code {
+        static final int PREMIERE_TABLE = 2;
+        static final int PILE_MAX = 8;
+        static final int LOCALES = PREMIERE_TABLE + CompiledNetlist.TABLES.length;
+
+        private final ByteArrayOutputStream octets = new ByteArrayOutputStream();
+        private final int prologue;
+
+        Code() {
+            for (int op = 0; op < CompiledNetlist.TABLES.length; op++) {
+                op(0x2B); // aload_1 (t)
+                entier(op);
+                op(0x32); // aaload
+                op(0x3A); // astore
+                op(PREMIERE_TABLE + op);
+            }
+            prologue = octets.size();
+        }
+
+        void op(int octet) {
+            octets.write(octet);
+        }
+
+        /** Empile une constante entière positive sans passer par le pool. */
+        void entier(int valeur) {
+            if (valeur <= 5) {
+                op(0x03 + valeur); // iconst_n
+            } else if (valeur <= Byte.MAX_VALUE) {
+                op(0x10); // bipush
+                op(valeur);
+            } else if (valeur <= Short.MAX_VALUE) {
+                op(0x11); // sipush
+                op(valeur >> 8);
+                op(valeur);
+            } else {
+                // (haut << 15) | bas, chaque moitié tenant dans un sipush
+                entier(valeur >>> 15);
+                op(0x10);
+                op(15);
+                op(0x78); // ishl
+                entier(valeur & 0x7FFF);
+                op(0x80); // ior
+            }
+        }
+
+        /** @return la taille du code des portes, hors prologue */
+        int taille() {
+            return octets.size() - prologue;
+        }
+
+        byte[] terminer() {
+            op(0xB1); // return
+            return octets.toByteArray();
+        }
+    }
+
+    /**
+     * Pool de constantes du fichier .class, sans doublons.
+     */
+    private static final class Constantes {
+        private final ByteArrayOutputStream octets = new ByteArrayOutputStream();
+        private final DataOutputStream out = new DataOutputStream(octets);
+        private final Map<String, Integer> index = new HashMap<>();
+        private int suivant = 1;
+
+        int utf8(String texte) {
+            return ajouter("U" + texte, () -> {
+                out.writeByte(1);
+                out.writeUTF(texte);
+            });
+        }
+
+        int classe(String nom) {
+            int utf8 = utf8(nom);
+            return ajouter("C" + nom, () -> {
+                out.writeByte(7);
+                out.writeShort(utf8);
+            });
+        }
+
+        int methode(int classe, String nom, String descripteur) {
+            int nomUtf8 = utf8(nom);
+            int descripteurUtf8 = utf8(descripteur);
+            int nomEtType = ajouter("N" + nom + descripteur, () -> {
+                out.writeByte(12);
+                out.writeShort(nomUtf8);
+                out.writeShort(descripteurUtf8);
+            });
+            return ajouter("M" + classe + "." + nom + descripteur, () -> {
+                out.writeByte(10);
+                out.writeShort(classe);
+                out.writeShort(nomEtType);
+            });
+        }
+
+        void ecrire(DataOutputStream destination) throws IOException {
+            destination.writeShort(suivant);
+            octets.writeTo(destination);
+        }
+
+        private int ajouter(String cle, Ecriture ecriture) {
+            Integer existant = index.get(cle);
+            if (existant != null) {
+                return existant;
+            }
+            try {
+                ecriture.ecrire();
+            } catch (IOException e) {
+                throw new IllegalStateException(e); // impossible en mémoire
+            }
+            index.put(cle, suivant);
+            return suivant++;
+        }
+
+        @FunctionalInterface
+        private interface Ecriture {
+            void ecrire() throws IOException;
+        }
+    }
+}
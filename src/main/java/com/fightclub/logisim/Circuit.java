@@ -5,10 +5,6 @@ import java.awt.event.*;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
 
 /**
  * Circuit class represents a circuit board where memory components and wires
@@ -19,12 +15,13 @@ public class Circuit extends JPanel {
 
     // --------------Attributs--------------//
 
-    private static final int MAX_ITERATIONS = 1000;
+    static final int MAX_ITERATIONS = 1000;
 
-    private List<MemoryComponent> components;
+    private final Netlist netlist;
+    private final Simulator simulator;
+    private final SimulationWorker worker;
     private MemoryComponent selectedComponent;
 
-    private List<Wire> wires;
     private ConnectionPoint wireStartPoint;
 
     private Point currentMousePosition;
@@ -32,7 +29,9 @@ public class Circuit extends JPanel {
     private boolean addingComponent;
     private boolean deletingMode;
     private String addingComponentType;
-    private boolean paused = true;
+    private int nombreEntrees = 2; // entrées des portes ajoutées
+    private SubcircuitDefinition sousCircuit; // définition des sous-circuits ajoutés
+    private volatile boolean paused = true; // lu par le thread de l'horloge
 
 
     // --------------Constructeur--------------//
@@ -47,8 +46,9 @@ public class Circuit extends JPanel {
         setFocusable(true);
         requestFocusInWindow();
     
-        components = new ArrayList<>();
-        wires = new ArrayList<>();
+        netlist = new Netlist();
+        simulator = new Simulator(netlist);
+        worker = new SimulationWorker(this);
         selectedComponent = null;
         wireStartPoint = null;
         currentMousePosition = null;
@@ -61,6 +61,13 @@ public class Circuit extends JPanel {
             public void mousePressed(MouseEvent e) {
                 requestFocusInWindow(); // Prendre le focus clavier
 
+                // Basculer une constante : clic simple pendant la simulation, double-clic sinon
+                MemoryComponent cible = getComponent(e.getX(), e.getY());
+                if (cible instanceof ConstantComponent constante && (!isEditable() || e.getClickCount() == 2)) {
+                    basculer(constante);
+                    return;
+                }
+
                 if (!isEditable()) {
                     JOptionPane.showMessageDialog(new JPanel(),"Impossible de modifier le circuit pendant la simulation.");
                     return;
@@ -98,10 +105,13 @@ public class Circuit extends JPanel {
                     
                     // Vérification simple ici
                     if (endPoint != null && endPoint.isInput() && endPoint.canConnect()) {
-                        Wire newWire = new Wire(wireStartPoint, endPoint);
-                        wires.add(newWire);
-                        wireStartPoint.connectWire(newWire);
-                        endPoint.connectWire(newWire);
+                        worker.annuler();
+                        netlist.connecter(wireStartPoint, endPoint);
+                    } else if (endPoint != null && endPoint.isInput()
+                            && !endPoint.getWire().getConnections().contains(wireStartPoint)) {
+                        // Entrée déjà reliée : la sortie devient un pilote de plus du même fil
+                        worker.annuler();
+                        netlist.ajouterPilote(endPoint.getWire(), wireStartPoint);
                     }
                     
                     wireStartPoint = null;
@@ -150,7 +160,11 @@ public class Circuit extends JPanel {
                         selectedComponent = null; // Désélection
                         break;
                     case KeyEvent.VK_R: // Rotation avec la touche R
-                        selectedComponent.rotate();
+                        worker.annuler();
+                        synchronized (netlist) {
+                            selectedComponent.rotate();
+                            netlist.modifie();
+                        }
                         break;
                 }
                 repaint();
@@ -164,26 +178,20 @@ public class Circuit extends JPanel {
      * Deletes a component or wire from the circuit based on the mouse event.
      * If a component is clicked, it removes the component and its connected wires.
      * If a wire is clicked, it removes the wire.
+     * Any background simulation is cancelled first, so that the edit does
+     * not wait for it to release the netlist.
      *
      * @param e the mouse event
      */
     private void deleteComponentOrWire(MouseEvent e) {
+        worker.annuler();
         MemoryComponent component = getComponent(e.getX(), e.getY());
         if (component != null) {
-            List<Wire> toRemove = new ArrayList<>();
-            for (Wire w : wires) {
-                if (w.isConnectedTo(component)) {
-                    toRemove.add(w);
-                    w.getEnd().setWire(null);
-                }
-            }
-            wires.removeAll(toRemove);
-            components.remove(component);
+            netlist.supprimerComposant(component);
         } else {
             Wire wire = getWireAt(e.getX(), e.getY());
             if (wire != null)
-                wires.remove(wire);
-                wire.getEnd().setWire(null);
+                netlist.supprimerFil(wire);
         }
         repaint();
     }
@@ -191,34 +199,54 @@ public class Circuit extends JPanel {
     /**
      * Adds a new component to the circuit at the specified mouse event location.
      * The type of component is determined by the addingComponentType variable.
+     * Any background simulation is cancelled first, as for a deletion.
      *
      * @param e the mouse event
      */
     private void addNewComponent(MouseEvent e) {
+        worker.annuler();
         switch (addingComponentType) {
             case "AND":
-                components.add(new AndGate(components.size() + 1, e.getX(), e.getY(), null, null));
+                netlist.ajouterComposant(new AndGate(netlist.prochainId(), e.getX(), e.getY(), nombreEntrees));
                 break;
             case "OR":
-                components.add(new OrGate(components.size() + 1, e.getX(), e.getY(), null, null));
+                netlist.ajouterComposant(new OrGate(netlist.prochainId(), e.getX(), e.getY(), nombreEntrees));
                 break;
             case "NOT":
-                components.add(new NotGate(components.size() + 1, e.getX(), e.getY(), null));
+                netlist.ajouterComposant(new NotGate(netlist.prochainId(), e.getX(), e.getY(), null));
                 break;
             case "XOR":
-                components.add(new XorGate(components.size() + 1, e.getX(), e.getY(), null, null));
+                netlist.ajouterComposant(new XorGate(netlist.prochainId(), e.getX(), e.getY(), nombreEntrees));
                 break;
             case "NAND":
-                components.add(new NandGate(components.size() + 1, e.getX(), e.getY(), null, null));
+                netlist.ajouterComposant(new NandGate(netlist.prochainId(), e.getX(), e.getY(), nombreEntrees));
+                break;
+            case "NOR":
+                netlist.ajouterComposant(new NorGate(netlist.prochainId(), e.getX(), e.getY(), nombreEntrees));
+                break;
+            case "XNOR":
+                netlist.ajouterComposant(new XnorGate(netlist.prochainId(), e.getX(), e.getY(), nombreEntrees));
                 break;
             case "0":
-                components.add(new ConstantComponent(components.size() + 1, QuadBool.FALSE, e.getX(), e.getY()));
+                netlist.ajouterComposant(new ConstantComponent(netlist.prochainId(), QuadBool.FALSE, e.getX(), e.getY()));
                 break;
             case "1":
-                components.add(new ConstantComponent(components.size() + 1, QuadBool.TRUE, e.getX(), e.getY()));
+                netlist.ajouterComposant(new ConstantComponent(netlist.prochainId(), QuadBool.TRUE, e.getX(), e.getY()));
                 break;
             case "LED":
-                components.add(new LedLight(components.size() + 1, e.getX(), e.getY()));
+                netlist.ajouterComposant(new LedLight(netlist.prochainId(), e.getX(), e.getY()));
+                break;
+            case "CLK":
+                netlist.ajouterComposant(new ClockComponent(netlist.prochainId(), QuadBool.FALSE, e.getX(), e.getY()));
+                break;
+            case "DFF":
+                netlist.ajouterComposant(new DFlipFlop(netlist.prochainId(), e.getX(), e.getY()));
+                break;
+            case "REG":
+                netlist.ajouterComposant(new Register(netlist.prochainId(), e.getX(), e.getY(), nombreEntrees));
+                break;
+            case "SUBCIRCUIT":
+                netlist.ajouterComposant(new Subcircuit(netlist.prochainId(), e.getX(), e.getY(), sousCircuit));
                 break;
         }
         repaint();
@@ -232,7 +260,7 @@ public class Circuit extends JPanel {
      * @return the connection point if found, null otherwise
      */
     private ConnectionPoint findConnectionPoint(int x, int y) {
-        for (MemoryComponent comp : components) {
+        for (MemoryComponent comp : netlist.getComponents()) {
             for (ConnectionPoint p : comp.getInputs()) {
                 if (p.contains(x, y))
                     return p;
@@ -253,7 +281,7 @@ public class Circuit extends JPanel {
      * @return the component if found, null otherwise
      */
     private MemoryComponent getComponent(int x, int y) {
-        return components.stream()
+        return netlist.getComponents().stream()
                 .filter(c -> c.contains(x, y))
                 .findFirst()
                 .orElse(null);
@@ -268,7 +296,7 @@ public class Circuit extends JPanel {
      */
     private Wire getWireAt(int x, int y) {
         final int TOLERANCE = 5;
-        return wires.stream()
+        return netlist.getWires().stream()
                 .filter(w -> w.isPointOnWire(x, y, TOLERANCE))
                 .findFirst()
                 .orElse(null);
@@ -277,13 +305,34 @@ public class Circuit extends JPanel {
     /**
      * Enables the adding component mode with the specified type.
      *
-     * @param type the type of component to add (AND, OR, NOT, XOR, NAND)
+     * @param type the type of component to add (AND, OR, NOT, XOR, NAND, NOR, XNOR)
      */
     public void enableAddingComponent(String type) {
         addingComponent = true;
         addingComponentType = type;
     }
 
+    /**
+     * Enables the adding component mode for instances of an imported subcircuit.
+     *
+     * @param definition the shared definition of the subcircuit
+     */
+    public void enableAddingSubcircuit(SubcircuitDefinition definition) {
+        sousCircuit = definition;
+        enableAddingComponent("SUBCIRCUIT");
+    }
+
+    /**
+     * Sets the number of inputs of the gates, and of bits of the registers,
+     * added afterwards.
+     *
+     * @param nombreEntrees number of inputs, between {@link LogicGate#MIN_ENTREES}
+     *                      and {@link LogicGate#MAX_ENTREES}
+     */
+    public void setNombreEntrees(int nombreEntrees) {
+        this.nombreEntrees = nombreEntrees;
+    }
+
     /**
      * Enables the deleting mode for components and wires.
      */
@@ -297,8 +346,10 @@ public class Circuit extends JPanel {
     @Override
     protected void paintComponent(Graphics g) {
         super.paintComponent(g);
-        wires.forEach(wire -> wire.draw(g));
-        components.forEach(comp -> comp.draw(g, comp == selectedComponent));
+        // Valeurs de la dernière simulation terminée, jamais celles d'une simulation en cours
+        SimulationSnapshot valeurs = simulator.getInstantane();
+        netlist.getWires().forEach(wire -> wire.draw(g, valeurs));
+        netlist.getComponents().forEach(comp -> comp.draw(g, comp == selectedComponent, valeurs));
 
         if (wireStartPoint != null && currentMousePosition != null) {
             Graphics2D g2d = (Graphics2D) g;
@@ -320,8 +371,9 @@ public class Circuit extends JPanel {
     }
         
     public void clearAll() {
-        components.clear();
-        wires.clear();
+        worker.annuler();
+        netlist.vider();
+        simulator.effacerInstantane();
         selectedComponent = null;
         wireStartPoint = null;
         currentMousePosition = null;
@@ -332,159 +384,105 @@ public class Circuit extends JPanel {
 
     // ------------------last ver simuler-----------------//
     /**
- * Simule le circuit jusqu'à trouver un état stable
- * @throws CircuitInstableException si la simulation ne converge pas
- */
-public void simuler() throws CircuitInstableException {
-    if (paused) return; // Ne rien faire si en pause
-    // 1. Initialisation
-    for (Wire fil : wires) {
-        fil.setValue(QuadBool.NOTHING);
+     * Simule le circuit jusqu'à trouver un état stable, avec le moteur courant.
+     * @throws CircuitInstableException si la simulation ne converge pas
+     */
+    public void simuler() throws CircuitInstableException {
+        simuler(SimulationProgress.AUCUN);
     }
 
-    // 2. Recherche du point fixe
-    for (int i = 0; i < MAX_ITERATIONS; i++) {
-        boolean stable = true;
-
-        // Pour chaque fil
-        for (Wire fil : wires) {
-            QuadBool nouvelleValeur = QuadBool.NOTHING;
-
-            // Calculer la valeur à partir des composants connectés
-            for (ConnectionPoint point : fil.getConnections()) {
-                if (!point.isInput()) { // Si c'est une sortie
-                    MemoryComponent comp = point.getParentComponent();
-                    
-                    // Récupérer les valeurs des entrées
-                    List<QuadBool> entrees = new ArrayList<>();
-                    for (ConnectionPoint entree : comp.getInputs()) {
-                        entrees.add(entree.getWire() != null ? entree.getWire().getValue() : QuadBool.NOTHING);
-                    }
-                    
-                    // Calculer la sortie
-                    QuadBool sortie = comp.calculerSortie();
-                    nouvelleValeur = nouvelleValeur.sup(sortie);
-                }
-            }
-
-            // Mettre à jour si nécessaire
-            if (!fil.getValue().equals(nouvelleValeur)) {
-                fil.setValue(nouvelleValeur);
-                stable = false;
-            }
-        }
+    /**
+     * Simule le circuit en signalant l'avancement ; appelé hors de l'EDT par
+     * {@link SimulationWorker} et {@link SimulationClock}.
+     * 
+     * @param progress suivi de la simulation, qui peut l'annuler
+     * @throws CircuitInstableException si la simulation ne converge pas
+     */
+    public void simuler(SimulationProgress progress) throws CircuitInstableException {
+        if (paused) return; // Ne rien faire si en pause
+        simulator.simuler(progress);
+    }
 
-        if (stable) {
-            return; // Circuit stable
-        }
+    /**
+     * Simule un pas d'horloge : les horloges du circuit sont inversées puis le
+     * circuit est simulé ; appelé à chaque tic par {@link SimulationClock}.
+     * 
+     * @throws CircuitInstableException si la simulation ne converge pas
+     */
+    public void simulerCycle() throws CircuitInstableException {
+        if (paused) return;
+        simulator.simulerCycle();
     }
 
-    throw new CircuitInstableException("Pas de point fixe après " + MAX_ITERATIONS + " itérations");
-}
+    /**
+     * @return le thread de simulation en arrière-plan de ce circuit
+     */
+    public SimulationWorker getWorker() {
+        return worker;
+    }
 
+    /**
+     * Inverse la valeur d'une constante et, si la simulation est en cours,
+     * resimule le circuit en arrière-plan.
+     * 
+     * @param constante la constante à basculer
+     */
+    private void basculer(ConstantComponent constante) {
+        constante.basculer();
+        worker.lancer();
+        repaint();
+    }
 
-    ////////////////////////////////////////////////////////////////////////////
+    /**
+     * Choisit le moteur utilisé par {@link #simuler()}.
+     * 
+     * @param engine le moteur de simulation
+     */
+    public void setEngine(SimulationEngine engine) {
+        simulator.setEngine(engine);
+    }
 
+    public SimulationEngine getEngine() {
+        return simulator.getEngine();
+    }
 
+    /**
+     * @return le simulateur du circuit (moteur, instantané, enregistrement)
+     */
+    public Simulator getSimulator() {
+        return simulator;
+    }
 
+    /**
+     * @return le modèle du circuit, utilisable sans interface graphique
+     */
+    public Netlist getNetlist() {
+        return netlist;
+    }
 
-    public String exportAsText() {
-        StringBuilder sb = new StringBuilder();
-
-        for (MemoryComponent comp : components) {
-            sb.append("Composant:");
-            sb.append(" type=").append(comp.getClass().getSimpleName());
-            sb.append(" id=").append(comp.getId());
-            sb.append(" x=").append(comp.getX());
-            sb.append(" y=").append(comp.getY());
-
-            // Exporter valeur si ConstantComponent
-            if (comp instanceof ConstantComponent constant) {
-                sb.append(" value=").append(constant.getOutputValue());
-            }
+    /**
+     * Compile l'état actuel du circuit en netlist à plat.
+     * 
+     * @return le netlist compilé
+     */
+    public CompiledNetlist compilerNetlist() {
+        return netlist.compiler();
+    }
 
-            sb.append("\n");
-        }
 
-        for (Wire wire : wires) {
-            MemoryComponent fromComp = wire.getStart().getParentComponent();
-            MemoryComponent toComp = wire.getEnd().getParentComponent();
+    ////////////////////////////////////////////////////////////////////////////
 
-            int fromId = fromComp.getId();
-            int toId = toComp.getId();
 
-            int fromIndex = fromComp.getOutputs().indexOf(wire.getStart());
-            int toIndex = toComp.getInputs().indexOf(wire.getEnd());
 
-            sb.append("Connexion: from=").append(fromId).append(".").append(fromIndex)
-                    .append(" to=").append(toId).append(".").append(toIndex)
-                    .append("\n");
-        }
 
-        return sb.toString();
+    public String exportAsText() {
+        return netlist.exportAsText();
     }
 
     public void importFromFile(File file) throws IOException {
-        components.clear();
-        wires.clear();
-
-        Map<Integer, MemoryComponent> idMap = new HashMap<>();
-        List<String> lignes = Files.readAllLines(file.toPath());
-
-        for (String ligne : lignes) {
-            if (ligne.startsWith("Composant:")) {
-                String[] parts = ligne.split(" ");
-                String type = parts[1].split("=")[1];
-                int id = Integer.parseInt(parts[2].split("=")[1]);
-                int x = Integer.parseInt(parts[3].split("=")[1]);
-                int y = Integer.parseInt(parts[4].split("=")[1]);
-
-                MemoryComponent comp = null;
-
-                switch (type) {
-                    case "AndGate" -> comp = new AndGate(id, x, y, null, null);
-                    case "OrGate" -> comp = new OrGate(id, x, y, null, null);
-                    case "NotGate" -> comp = new NotGate(id, x, y, null);
-                    case "XorGate" -> comp = new XorGate(id, x, y, null, null);
-                    case "NandGate" -> comp = new NandGate(id, x, y, null, null);
-                    case "LedLight" -> comp = new LedLight(id, x, y);
-                    case "ConstantComponent" -> {
-                        QuadBool val = QuadBool.FALSE;
-                        // Lire la valeur si elle est présente
-                        for (String part : parts) {
-                            if (part.startsWith("value=")) {
-                                val = QuadBool.valueOf(part.split("=")[1]);
-                            }
-                        }
-                        comp = new ConstantComponent(id, val, x, y);
-                    }
-                }
-
-                if (comp != null) {
-                    idMap.put(id, comp);
-                    components.add(comp);
-                }
-
-            } else if (ligne.startsWith("Connexion:")) {
-                String[] parts = ligne.split(" ");
-                String from = parts[1].split("=")[1];
-                String to = parts[2].split("=")[1];
-
-                int fromId = Integer.parseInt(from.split("\\.")[0]);
-                int fromIndex = Integer.parseInt(from.split("\\.")[1]);
-                int toId = Integer.parseInt(to.split("\\.")[0]);
-                int toIndex = Integer.parseInt(to.split("\\.")[1]);
-
-                ConnectionPoint src = idMap.get(fromId).getOutputs().get(fromIndex);
-                ConnectionPoint dst = idMap.get(toId).getInputs().get(toIndex);
-
-                Wire wire = new Wire(src, dst);
-                src.connectWire(wire);
-                dst.connectWire(wire);
-                wires.add(wire);
-            }
-        }
-
+        worker.annuler();
+        netlist.importer(Files.readAllLines(file.toPath()));
+        selectedComponent = null;
         repaint();
     }
 }
@@ -1,7 +1,57 @@
 package com.fightclub.logisim;
+import java.util.List;
+import java.util.stream.Collectors;
+
 // Définition de l'exception
 public class CircuitInstableException extends Exception {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int periode; // période de l'oscillation, 0 si inconnue
+    // Composants dont la sortie oscille ; non sérialisés, ils retiendraient tout le circuit
+    private final transient List<MemoryComponent> composants;
+
     public CircuitInstableException(String message) {
+        this(message, 0, List.of());
+    }
+
+    /**
+     * Exception décrivant une oscillation détectée.
+     * 
+     * @param message    message d'erreur
+     * @param periode    nombre d'itérations après lequel l'état se répète, 0 si inconnu
+     * @param composants composants dont la sortie change au cours d'une période
+     */
+    public CircuitInstableException(String message, int periode, List<MemoryComponent> composants) {
         super(message);
+        this.periode = periode;
+        this.composants = List.copyOf(composants);
+    }
+
+    /**
+     * Construit l'exception signalant qu'un état déjà rencontré s'est reproduit.
+     * 
+     * @param iteration  itération à laquelle la répétition a été confirmée
+     * @param periode    période de l'oscillation
+     * @param composants composants dont la sortie oscille
+     * @return l'exception
+     */
+    static CircuitInstableException oscillation(int iteration, int periode, List<MemoryComponent> composants) {
+        String ids = composants.stream()
+                .map(c -> String.valueOf(c.getId()))
+                .collect(Collectors.joining(", "));
+        return new CircuitInstableException("Oscillation de période " + periode + " détectée après " + iteration
+                + " itérations (composants : " + ids + ")", periode, composants);
+    }
+
+    public int getPeriode() {
+        return periode;
+    }
+
+    /**
+     * @return les composants dont la sortie oscille, vide après désérialisation
+     */
+    public List<MemoryComponent> getComposants() {
+        return composants != null ? composants : List.of();
     }
-}
\ No newline at end of file
+}
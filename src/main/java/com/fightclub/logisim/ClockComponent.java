@@ -0,0 +1,60 @@
+package com.fightclub.logisim;
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+
+/**
+ * Horloge : une constante que {@link Simulator#simulerCycle()} inverse à
+ * chaque pas, un pas valant une demi-période. Pour les moteurs et le netlist
+ * compilé, c'est une entrée comme une autre ; elle peut aussi être basculée
+ * à la main comme une constante.
+ */
+public class ClockComponent extends ConstantComponent {
+
+    /**
+     * @param id    identifiant unique du composant
+     * @param value valeur initiale
+     * @param x     position horizontale
+     * @param y     position verticale
+     */
+    public ClockComponent(int id, QuadBool value, int x, int y) {
+        super(id, value, x, y);
+        this.type = ComponentType.CLOCK;
+    }
+
+    @Override
+    public void setOutputValue(QuadBool value) {
+        super.setOutputValue(value);
+        this.type = ComponentType.CLOCK;
+    }
+
+    @Override
+    public void draw(Graphics g, boolean isSelected) {
+        Graphics2D g2d = (Graphics2D) g;
+        AffineTransform oldTransform = g2d.getTransform();
+
+        g2d.translate(getX() + getWidth() / 2, getY() + getHeight() / 2);
+        g2d.rotate(Math.toRadians(getRotationAngle()));
+        g2d.translate(-getWidth() / 2, -getHeight() / 2);
+
+        g2d.setColor(getOutputValue() == QuadBool.TRUE ? Color.YELLOW : Color.LIGHT_GRAY);
+        g2d.fillRect(0, 0, getWidth(), getHeight());
+        g2d.setColor(Color.BLACK);
+        g2d.drawRect(0, 0, getWidth(), getHeight());
+
+        // Signal carré
+        int w = getWidth();
+        int bas = getHeight() * 2 / 3;
+        int haut = getHeight() / 3;
+        g2d.drawPolyline(
+                new int[] { w / 8, w / 8, w * 3 / 8, w * 3 / 8, w * 5 / 8, w * 5 / 8, w * 7 / 8, w * 7 / 8 },
+                new int[] { bas, haut, haut, bas, bas, haut, haut, bas }, 8);
+
+        g2d.setTransform(oldTransform);
+        drawConnectionPoints(g2d);
+
+        if (isSelected) {
+            g2d.setColor(Color.BLUE);
+            g2d.drawRect(getX(), getY(), getWidth(), getHeight());
+        }
+    }
+}
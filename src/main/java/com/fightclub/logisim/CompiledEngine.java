@@ -0,0 +1,43 @@
+package com.fightclub.logisim;
+import java.util.List;
+
+/**
+ * Moteur de simulation s'appuyant sur un {@link CompiledNetlist}.
+ * Le circuit est compilé à la première simulation, puis recompilé uniquement
+ * lorsque sa structure a changé. Entre deux recompilations, le dernier état
+ * stable est conservé et seul le cône d'influence des constantes modifiées
+ * est resimulé.
+ *
+ * Le netlist compilé est d'abord réduit par {@link NetlistOptimizer}, avec
+ * des entrées libres (les constantes peuvent être basculées) et en gardant
+ * les portes lues par un fil (tous les fils restent affichés).
+ */
+public class CompiledEngine implements SimulationEngine {
+
+    private CompiledNetlist netlist;
+
+    @Override
+    public void simuler(List<MemoryComponent> components, List<Wire> wires) throws CircuitInstableException {
+        if (netlist == null) {
+            NetlistOptimizer optimiseur = new NetlistOptimizer(CompiledNetlist.compiler(components, wires));
+            optimiseur.conserverFils();
+            netlist = optimiseur.optimiser();
+            netlist.simuler();
+        } else {
+            // Structure inchangée : seules les constantes ont pu changer
+            netlist.chargerEntrees();
+            netlist.simulerIncremental();
+        }
+        netlist.appliquer();
+    }
+
+    @Override
+    public void invalider() {
+        netlist = null;
+    }
+
+    @Override
+    public String toString() {
+        return "Compilé";
+    }
+}
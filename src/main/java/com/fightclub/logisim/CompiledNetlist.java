@@ -0,0 +1,1012 @@
+package com.fightclub.logisim;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Représentation compilée (« à plat ») d'un circuit, sous forme de tableaux
+ * primitifs, pour une simulation sans parcours du graphe d'objets ni allocation.
+ *
+ * Chaque point de sortie du circuit devient un net, identifié par un indice.
+ * Le net 0 est réservé aux entrées non connectées et vaut toujours NOTHING.
+ * Les portes logiques sont rangées par niveau topologique quand le circuit
+ * est acyclique. Sinon elles sont regroupées par composante fortement connexe,
+ * dans l'ordre topologique des composantes : seules les composantes formant
+ * une boucle sont itérées jusqu'au point fixe. Les {@link ConstantComponent} sont les entrées du netlist et
+ * les {@link LedLight} ses sorties.
+ *
+ * Un {@link Register} n'est pas une porte : chacun de ses bits pilote un net
+ * d'état, chargé depuis le registre comme une entrée, et ses entrées ne
+ * sont lues que pour son échantillonnage, hors du netlist. Une boucle
+ * passant par un registre ne rend donc pas le netlist cyclique.
+ *
+ * Un {@link Net} à plusieurs pilotes est résolu par une chaîne de portes
+ * internes {@code OP_SUP} (supremum), sans composant associé : ses lecteurs
+ * lisent le net produit par la dernière. De même, une {@link LogicGate} à N
+ * entrées devient une chaîne de N - 1 portes à deux entrées qui replie
+ * l'opération de gauche à droite ; seule la dernière, qui applique la
+ * négation éventuelle (NAND, NOR, XNOR), est associée au composant.
+ * Les {@link Subcircuit} sont aplatis avant la compilation (voir
+ * {@link SubcircuitDefinition#aplatir}) ; les fils en plus ne changent que
+ * la taille du netlist, pas les indices des fils d'origine. Les tampons de
+ * broche ({@link PinBuffer}) deviennent des portes SUP à une entrée.
+ *
+ * Les valeurs des nets sont stockées sous forme de code 2 bits de {@link QuadBool}.
+ */
+public final class CompiledNetlist {
+
+    // -------------- CODES OPÉRATION --------------//
+
+    static final byte OP_AND = 0;
+    static final byte OP_OR = 1;
+    static final byte OP_NOT = 2;
+    static final byte OP_XOR = 3;
+    static final byte OP_NAND = 4;
+    static final byte OP_SUP = 5; // résolution d'un net à plusieurs pilotes
+    static final byte OP_NOR = 6;
+    static final byte OP_XNOR = 7;
+
+    /** Net des entrées non connectées. */
+    static final int NET_NON_CONNECTE = 0;
+
+    /** Tables de vérité des portes, indexées par code opération puis par (a << 2) | b. */
+    static final byte[][] TABLES = {
+            QuadBool.table(ComponentType.AND),
+            QuadBool.table(ComponentType.OR),
+            QuadBool.table(ComponentType.NOT),
+            QuadBool.table(ComponentType.XOR),
+            QuadBool.table(ComponentType.NAND),
+            QuadBool.tableSup(),
+            QuadBool.table(ComponentType.NOR),
+            QuadBool.table(ComponentType.XNOR)
+    };
+
+    // -------------- ATTRIBUTS --------------//
+    // Les tableaux sont accessibles dans le paquetage pour les noyaux de simulation.
+
+    final byte[] opcodes; // code opération de chaque porte
+    final int[] debutEntrees; // entrees[debutEntrees[p] .. debutEntrees[p + 1]) sont les entrées de la porte p
+    final int[] entrees; // nets d'entrée des portes
+    final int[] sorties; // net de sortie de chaque porte
+    final byte[] valeurs; // valeur courante de chaque net
+    final int[] netsEntrees; // net piloté par chaque constante
+    final int[] netsSorties; // net lu par chaque LED
+    final int[] netsEtats; // net piloté par chaque bit de registre
+    final int[] netsRegistres; // nets lus par les registres (entrées D puis horloge)
+    final int[] netsFils; // net lu par chaque fil
+    final boolean acyclique;
+    final int[] debutNiveaux; // les portes du niveau k sont [debutNiveaux[k], debutNiveaux[k + 1]), vide si boucle
+    final int[] debutComposantes; // idem pour les composantes fortement connexes, vide si acyclique
+    final boolean[] boucles; // vrai si la composante c forme une boucle
+    final int[] netsConstantes; // nets de valeur fixe, calculée à l'optimisation
+    final byte[] valeursConstantes; // valeur de chacun de ces nets
+
+    private final byte[] valeursEntrees;
+    private final byte[] valeursEtats;
+    private final MemoryComponent[] portes;
+    private final ConstantComponent[] constantes;
+    private final Register[] registres;
+    private final LedLight[] leds;
+    private final Wire[] fils;
+
+    // Simulation incrémentale
+    final int[] debutLecteurs; // lecteurs[debutLecteurs[n] .. debutLecteurs[n + 1]) lisent le net n
+    final int[] lecteurs; // portes lisant chaque net
+    private final int[] tas; // file de priorité des portes à réévaluer, par indice (ordre topologique)
+    private final boolean[] enAttente;
+    private int tailleTas;
+    private boolean etatStable; // vrai si les valeurs sont celles d'une simulation complète réussie
+    private int nbIterations; // passes de la boucle la plus lente lors de la dernière simulation complète
+
+    // -------------- CONSTRUCTEUR --------------//
+
+    private CompiledNetlist(byte[] opcodes, int[] debutEntrees, int[] entrees, int[] sorties, int nombreNets,
+            int[] netsEntrees, int[] netsSorties, int[] netsEtats, int[] netsRegistres, boolean acyclique,
+            int[] debutNiveaux, int[] debutComposantes, boolean[] boucles, int[] netsConstantes,
+            byte[] valeursConstantes, MemoryComponent[] portes, ConstantComponent[] constantes,
+            Register[] registres, LedLight[] leds, Wire[] fils, int[] netsFils) {
+        this.opcodes = opcodes;
+        this.debutEntrees = debutEntrees;
+        this.entrees = entrees;
+        this.sorties = sorties;
+        this.valeurs = new byte[nombreNets];
+        this.netsEntrees = netsEntrees;
+        this.netsSorties = netsSorties;
+        this.netsEtats = netsEtats;
+        this.netsRegistres = netsRegistres;
+        this.acyclique = acyclique;
+        this.debutNiveaux = debutNiveaux;
+        this.debutComposantes = debutComposantes;
+        this.boucles = boucles;
+        this.netsConstantes = netsConstantes;
+        this.valeursConstantes = valeursConstantes;
+        this.valeursEntrees = new byte[netsEntrees.length];
+        this.valeursEtats = new byte[netsEtats.length];
+        this.portes = portes;
+        this.constantes = constantes;
+        this.registres = registres;
+        this.leds = leds;
+        this.fils = fils;
+        this.netsFils = netsFils;
+
+        // Index inverse : portes lisant chaque net
+        this.debutLecteurs = new int[nombreNets + 1];
+        for (int net : entrees) {
+            debutLecteurs[net + 1]++;
+        }
+        for (int n = 0; n < nombreNets; n++) {
+            debutLecteurs[n + 1] += debutLecteurs[n];
+        }
+        this.lecteurs = new int[entrees.length];
+        int[] position = Arrays.copyOf(debutLecteurs, nombreNets);
+        for (int p = 0; p < opcodes.length; p++) {
+            for (int k = debutEntrees[p]; k < debutEntrees[p + 1]; k++) {
+                lecteurs[position[entrees[k]]++] = p;
+            }
+        }
+        this.tas = new int[opcodes.length];
+        this.enAttente = new boolean[opcodes.length];
+        chargerEntrees();
+    }
+
+    // -------------- COMPILATION --------------//
+
+    /**
+     * Compile le modèle objet d'un circuit en netlist à plat.
+     *
+     * @param components Composants du circuit
+     * @param wires      Fils du circuit
+     * @return Le netlist compilé
+     * @throws IllegalArgumentException si un composant n'a pas d'équivalent compilé
+     */
+    public static CompiledNetlist compiler(List<MemoryComponent> components, List<Wire> wires) {
+        // 0. Les sous-circuits sont remplacés par une copie de leurs portes
+        for (MemoryComponent comp : components) {
+            if (comp instanceof Subcircuit) {
+                List<MemoryComponent> composantsAplatis = new ArrayList<>();
+                List<Wire> filsAplatis = new ArrayList<>();
+                SubcircuitDefinition.aplatir(components, wires, composantsAplatis, filsAplatis);
+                return compiler(composantsAplatis, filsAplatis);
+            }
+        }
+
+        // 1. Un net par point de sortie
+        Map<ConnectionPoint, Integer> nets = new IdentityHashMap<>();
+        int nombreNets = 1;
+        for (MemoryComponent comp : components) {
+            for (ConnectionPoint sortie : comp.getOutputs()) {
+                nets.put(sortie, nombreNets++);
+            }
+        }
+
+        // 2. Répartition des composants
+        List<MemoryComponent> portes = new ArrayList<>();
+        List<ConstantComponent> constantes = new ArrayList<>();
+        List<Register> registres = new ArrayList<>();
+        List<LedLight> leds = new ArrayList<>();
+        for (MemoryComponent comp : components) {
+            if (comp instanceof ConstantComponent constante) {
+                constantes.add(constante);
+            } else if (comp instanceof Register registre) {
+                registres.add(registre);
+            } else if (comp instanceof LedLight led) {
+                leds.add(led);
+            } else {
+                portes.add(comp);
+            }
+        }
+
+        // Net lu par les fils de chaque équipotentielle ; une porte SUP de plus par pilote supplémentaire
+        Map<Wire, Integer> netsDesFils = new IdentityHashMap<>();
+        List<int[]> resolutions = new ArrayList<>(); // {net a, net b, net résolu}
+        for (Net equipotentielle : Net.construire(wires)) {
+            int resolu = NET_NON_CONNECTE;
+            for (ConnectionPoint pilote : equipotentielle.getPilotes()) {
+                int net = nets.getOrDefault(pilote, NET_NON_CONNECTE);
+                if (net == NET_NON_CONNECTE) {
+                    continue; // broche d'un sous-circuit aplati
+                }
+                if (resolu == NET_NON_CONNECTE) {
+                    resolu = net;
+                } else {
+                    resolutions.add(new int[] { resolu, net, nombreNets });
+                    resolu = nombreNets++;
+                }
+            }
+            for (Wire fil : equipotentielle.getFils()) {
+                netsDesFils.put(fil, resolu);
+            }
+        }
+
+        // Portes internes : chaîne de chaque composant logique puis portes de résolution
+        int nbPortes = resolutions.size();
+        for (MemoryComponent porte : portes) {
+            nbPortes += Math.max(1, porte.getInputs().size() - 1);
+        }
+        byte[] opcodesInternes = new byte[nbPortes];
+        int[][] entreesInternes = new int[nbPortes][];
+        int[] sortiesInternes = new int[nbPortes];
+        MemoryComponent[] composantsInternes = new MemoryComponent[nbPortes]; // null pour les portes ajoutées
+        int q = 0;
+        for (MemoryComponent porte : portes) {
+            List<ConnectionPoint> entreesPorte = porte.getInputs();
+            byte opcode = opcode(porte);
+            int derniere = entreesPorte.size() - 1;
+            int repli = net(netsDesFils, entreesPorte.get(0));
+            for (int e = 1; e < derniere; e++) {
+                opcodesInternes[q] = operationRepliee(opcode);
+                entreesInternes[q] = new int[] { repli, net(netsDesFils, entreesPorte.get(e)) };
+                sortiesInternes[q++] = repli = nombreNets++;
+            }
+            opcodesInternes[q] = opcode;
+            entreesInternes[q] = derniere == 0 ? new int[] { repli }
+                    : new int[] { repli, net(netsDesFils, entreesPorte.get(derniere)) };
+            sortiesInternes[q] = nets.get(porte.getOutputs().get(0));
+            composantsInternes[q++] = porte instanceof PinBuffer ? null : porte;
+        }
+        for (int[] resolution : resolutions) {
+            opcodesInternes[q] = OP_SUP;
+            entreesInternes[q] = new int[] { resolution[0], resolution[1] };
+            sortiesInternes[q++] = resolution[2];
+        }
+
+        // 3. Tri topologique des portes (Kahn) ; ordre des composants si boucle
+        Map<Integer, Integer> pilote = new HashMap<>();
+        for (int p = 0; p < nbPortes; p++) {
+            pilote.put(sortiesInternes[p], p);
+        }
+        int[] degres = new int[nbPortes];
+        List<List<Integer>> successeurs = new ArrayList<>();
+        for (int p = 0; p < nbPortes; p++) {
+            successeurs.add(new ArrayList<>(2));
+        }
+        for (int p = 0; p < nbPortes; p++) {
+            for (int entree : entreesInternes[p]) {
+                Integer pred = pilote.get(entree);
+                if (pred != null) {
+                    successeurs.get(pred).add(p);
+                    degres[p]++;
+                }
+            }
+        }
+        int[] ordre = new int[nbPortes];
+        int tete = 0, queue = 0;
+        for (int p = 0; p < nbPortes; p++) {
+            if (degres[p] == 0) {
+                ordre[queue++] = p;
+            }
+        }
+        while (tete < queue) {
+            for (int succ : successeurs.get(ordre[tete++])) {
+                if (--degres[succ] == 0) {
+                    ordre[queue++] = succ;
+                }
+            }
+        }
+        boolean acyclique = queue == nbPortes;
+        int[] debutNiveaux = new int[0];
+        int[] debutComposantes = new int[0];
+        boolean[] boucles = new boolean[0];
+        if (acyclique) {
+            // Niveau d'une porte : 1 + niveau maximal de ses prédécesseurs
+            int[] niveau = new int[nbPortes];
+            int nbNiveaux = nbPortes == 0 ? 0 : 1;
+            for (int p : ordre) {
+                for (int succ : successeurs.get(p)) {
+                    niveau[succ] = Math.max(niveau[succ], niveau[p] + 1);
+                    nbNiveaux = Math.max(nbNiveaux, niveau[succ] + 1);
+                }
+            }
+            // Tri par dénombrement : les portes d'un même niveau deviennent contiguës
+            debutNiveaux = new int[nbNiveaux + 1];
+            for (int p = 0; p < niveau.length; p++) {
+                debutNiveaux[niveau[p] + 1]++;
+            }
+            for (int k = 0; k < nbNiveaux; k++) {
+                debutNiveaux[k + 1] += debutNiveaux[k];
+            }
+            int[] position = Arrays.copyOf(debutNiveaux, nbNiveaux);
+            for (int p : ordre.clone()) {
+                ordre[position[niveau[p]]++] = p;
+            }
+        } else {
+            // Composantes fortement connexes, dans l'ordre topologique
+            List<int[]> composantes = composantesFortementConnexes(successeurs);
+            debutComposantes = new int[composantes.size() + 1];
+            boucles = new boolean[composantes.size()];
+            int i = 0;
+            for (int c = 0; c < composantes.size(); c++) {
+                int[] composante = composantes.get(c);
+                Arrays.sort(composante); // ordre des composants à l'intérieur d'une boucle
+                debutComposantes[c] = i;
+                for (int p : composante) {
+                    ordre[i++] = p;
+                }
+                boucles[c] = composante.length > 1 || successeurs.get(composante[0]).contains(composante[0]);
+            }
+            debutComposantes[composantes.size()] = i;
+        }
+
+        // 4. Remplissage des tableaux
+        byte[] opcodes = new byte[nbPortes];
+        int[] debutEntrees = new int[nbPortes + 1];
+        int[] sorties = new int[nbPortes];
+        int nombreEntrees = 0;
+        for (int[] entreesPorte : entreesInternes) {
+            nombreEntrees += entreesPorte.length;
+        }
+        int[] entrees = new int[nombreEntrees];
+        MemoryComponent[] portesOrdonnees = new MemoryComponent[nbPortes];
+        int k = 0;
+        for (int i = 0; i < ordre.length; i++) {
+            int p = ordre[i];
+            portesOrdonnees[i] = composantsInternes[p];
+            opcodes[i] = opcodesInternes[p];
+            debutEntrees[i] = k;
+            for (int entree : entreesInternes[p]) {
+                entrees[k++] = entree;
+            }
+            sorties[i] = sortiesInternes[p];
+        }
+        debutEntrees[nbPortes] = k;
+
+        int[] netsEntrees = new int[constantes.size()];
+        for (int i = 0; i < netsEntrees.length; i++) {
+            netsEntrees[i] = nets.get(constantes.get(i).getOutputs().get(0));
+        }
+        int[] netsSorties = new int[leds.size()];
+        for (int i = 0; i < netsSorties.length; i++) {
+            netsSorties[i] = net(netsDesFils, leds.get(i).getInputs().get(0));
+        }
+        List<Integer> netsEtats = new ArrayList<>();
+        List<Integer> netsRegistres = new ArrayList<>();
+        for (Register registre : registres) {
+            for (ConnectionPoint sortie : registre.getOutputs()) {
+                netsEtats.add(nets.get(sortie));
+            }
+            for (ConnectionPoint entree : registre.getInputs()) {
+                netsRegistres.add(net(netsDesFils, entree));
+            }
+        }
+        int[] netsFils = new int[wires.size()];
+        for (int i = 0; i < netsFils.length; i++) {
+            netsFils[i] = netsDesFils.getOrDefault(wires.get(i), NET_NON_CONNECTE);
+        }
+
+        return new CompiledNetlist(opcodes, debutEntrees, entrees, sorties, nombreNets,
+                netsEntrees, netsSorties, netsEtats.stream().mapToInt(Integer::intValue).toArray(),
+                netsRegistres.stream().mapToInt(Integer::intValue).toArray(), acyclique, debutNiveaux,
+                debutComposantes, boucles, new int[0], new byte[0], portesOrdonnees, constantes.toArray(new ConstantComponent[0]),
+                registres.toArray(new Register[0]), leds.toArray(new LedLight[0]), wires.toArray(new Wire[0]), netsFils);
+    }
+
+    /**
+     * Construit le netlist réduit calculé par {@link NetlistOptimizer}. Les
+     * portes gardées conservent leur ordre relatif ; les niveaux (ou les
+     * composantes) sont recalculés. Les nets gardent leur numéro : les LED et
+     * les fils lisent le net qui remplace le leur.
+     *
+     * @param gardees       portes conservées
+     * @param opcodes       code opération de chaque porte ; une porte devenue NON ne garde que sa première entrée
+     * @param entrees       nets d'entrée de chaque porte, déjà remplacés
+     * @param remplacement  net à lire à la place de chaque net
+     * @param netsFixes     nets de valeur fixe
+     * @param valeursFixes  valeur de chacun de ces nets
+     * @return le nouveau netlist, avec les mêmes valeurs d'entrée
+     */
+    CompiledNetlist reduire(boolean[] gardees, byte[] opcodes, int[] entrees, int[] remplacement,
+            int[] netsFixes, byte[] valeursFixes) {
+        int nbNets = valeurs.length;
+        int[] ordre = new int[opcodes.length];
+        int nb = 0;
+        for (int p = 0; p < opcodes.length; p++) {
+            if (gardees[p]) {
+                ordre[nb++] = p;
+            }
+        }
+        ordre = Arrays.copyOf(ordre, nb);
+
+        int[] nouveauxNiveaux = new int[0];
+        int[] nouvellesComposantes = new int[0];
+        boolean[] nouvellesBoucles = new boolean[0];
+        if (acyclique) {
+            // Les portes restent dans l'ordre topologique : un seul parcours suffit
+            int[] niveauNet = new int[nbNets]; // 1 + niveau de la porte pilotant le net, 0 sinon
+            int[] niveau = new int[nb];
+            int nbNiveaux = nb == 0 ? 0 : 1;
+            for (int i = 0; i < nb; i++) {
+                int p = ordre[i];
+                int fin = opcodes[p] == OP_NOT ? debutEntrees[p] + 1 : debutEntrees[p + 1];
+                for (int k = debutEntrees[p]; k < fin; k++) {
+                    niveau[i] = Math.max(niveau[i], niveauNet[entrees[k]]);
+                }
+                niveauNet[sorties[p]] = niveau[i] + 1;
+                nbNiveaux = Math.max(nbNiveaux, niveau[i] + 1);
+            }
+            nouveauxNiveaux = new int[nbNiveaux + 1];
+            for (int i = 0; i < nb; i++) {
+                nouveauxNiveaux[niveau[i] + 1]++;
+            }
+            for (int k = 0; k < nbNiveaux; k++) {
+                nouveauxNiveaux[k + 1] += nouveauxNiveaux[k];
+            }
+            int[] position = Arrays.copyOf(nouveauxNiveaux, nbNiveaux);
+            int[] trie = new int[nb];
+            for (int i = 0; i < nb; i++) {
+                trie[position[niveau[i]]++] = ordre[i];
+            }
+            ordre = trie;
+        } else {
+            // Les composantes sans porte gardée disparaissent
+            int[] debuts = new int[boucles.length + 1];
+            boolean[] estBoucle = new boolean[boucles.length];
+            int c2 = 0;
+            int i = 0;
+            for (int c = 0; c < boucles.length; c++) {
+                int debut = i;
+                for (int p = debutComposantes[c]; p < debutComposantes[c + 1]; p++) {
+                    if (gardees[p]) {
+                        i++;
+                    }
+                }
+                if (i > debut) {
+                    debuts[c2] = debut;
+                    estBoucle[c2++] = boucles[c];
+                }
+            }
+            debuts[c2] = i;
+            nouvellesComposantes = Arrays.copyOf(debuts, c2 + 1);
+            nouvellesBoucles = Arrays.copyOf(estBoucle, c2);
+        }
+
+        byte[] nouveauxOpcodes = new byte[nb];
+        int[] nouveauxDebuts = new int[nb + 1];
+        int[] nouvellesSorties = new int[nb];
+        MemoryComponent[] nouvellesPortes = new MemoryComponent[nb];
+        int[] nouvellesEntrees = new int[entrees.length];
+        int k = 0;
+        for (int i = 0; i < nb; i++) {
+            int p = ordre[i];
+            nouveauxOpcodes[i] = opcodes[p];
+            nouveauxDebuts[i] = k;
+            int fin = opcodes[p] == OP_NOT ? debutEntrees[p] + 1 : debutEntrees[p + 1];
+            for (int e = debutEntrees[p]; e < fin; e++) {
+                nouvellesEntrees[k++] = entrees[e];
+            }
+            nouvellesSorties[i] = sorties[p];
+            nouvellesPortes[i] = portes[p];
+        }
+        nouveauxDebuts[nb] = k;
+
+        int[] nouveauxNetsSorties = new int[netsSorties.length];
+        for (int o = 0; o < netsSorties.length; o++) {
+            nouveauxNetsSorties[o] = remplacement[netsSorties[o]];
+        }
+        int[] nouveauxNetsRegistres = new int[netsRegistres.length];
+        for (int r = 0; r < netsRegistres.length; r++) {
+            nouveauxNetsRegistres[r] = remplacement[netsRegistres[r]];
+        }
+        int[] nouveauxNetsFils = new int[netsFils.length];
+        for (int f = 0; f < netsFils.length; f++) {
+            nouveauxNetsFils[f] = remplacement[netsFils[f]];
+        }
+
+        CompiledNetlist reduit = new CompiledNetlist(nouveauxOpcodes, nouveauxDebuts,
+                Arrays.copyOf(nouvellesEntrees, k), nouvellesSorties, nbNets, netsEntrees.clone(),
+                nouveauxNetsSorties, netsEtats.clone(), nouveauxNetsRegistres, acyclique, nouveauxNiveaux,
+                nouvellesComposantes, nouvellesBoucles, netsFixes, valeursFixes, nouvellesPortes, constantes,
+                registres, leds, fils, nouveauxNetsFils);
+        System.arraycopy(valeursEntrees, 0, reduit.valeursEntrees, 0, valeursEntrees.length);
+        System.arraycopy(valeursEtats, 0, reduit.valeursEtats, 0, valeursEtats.length);
+        return reduit;
+    }
+
+    /**
+     * Calcule les composantes fortement connexes du graphe des portes
+     * (algorithme de Tarjan, en version itérative pour les grands circuits).
+     *
+     * @param successeurs successeurs de chaque porte
+     * @return les composantes, dans l'ordre topologique du graphe quotient
+     */
+    static List<int[]> composantesFortementConnexes(List<List<Integer>> successeurs) {
+        int n = successeurs.size();
+        int[] index = new int[n];
+        int[] lien = new int[n]; // plus petit index atteignable
+        int[] suivant = new int[n]; // prochain successeur à explorer
+        boolean[] surPile = new boolean[n];
+        int[] pile = new int[n];
+        int[] appels = new int[n];
+        Arrays.fill(index, -1);
+        int compteur = 0, hauteur = 0;
+        List<int[]> composantes = new ArrayList<>();
+
+        for (int s = 0; s < n; s++) {
+            if (index[s] != -1) {
+                continue;
+            }
+            int profondeur = 0;
+            appels[profondeur++] = s;
+            index[s] = lien[s] = compteur++;
+            pile[hauteur++] = s;
+            surPile[s] = true;
+
+            while (profondeur > 0) {
+                int v = appels[profondeur - 1];
+                List<Integer> succ = successeurs.get(v);
+                if (suivant[v] < succ.size()) {
+                    int w = succ.get(suivant[v]++);
+                    if (index[w] == -1) {
+                        index[w] = lien[w] = compteur++;
+                        pile[hauteur++] = w;
+                        surPile[w] = true;
+                        appels[profondeur++] = w;
+                    } else if (surPile[w]) {
+                        lien[v] = Math.min(lien[v], index[w]);
+                    }
+                    continue;
+                }
+
+                profondeur--;
+                if (profondeur > 0) {
+                    int parent = appels[profondeur - 1];
+                    lien[parent] = Math.min(lien[parent], lien[v]);
+                }
+                if (lien[v] == index[v]) {
+                    int debut = hauteur;
+                    do {
+                        surPile[pile[--debut]] = false;
+                    } while (pile[debut] != v);
+                    composantes.add(Arrays.copyOfRange(pile, debut, hauteur));
+                    hauteur = debut;
+                }
+            }
+        }
+
+        // Tarjan produit les composantes dans l'ordre topologique inverse
+        Collections.reverse(composantes);
+        return composantes;
+    }
+
+    /**
+     * @return le net relié à un point d'entrée, ou {@link #NET_NON_CONNECTE}
+     */
+    private static int net(Map<Wire, Integer> netsDesFils, ConnectionPoint entree) {
+        Wire fil = entree.getWire();
+        return fil != null ? netsDesFils.getOrDefault(fil, NET_NON_CONNECTE) : NET_NON_CONNECTE;
+    }
+
+    /**
+     * @return le code opération correspondant au type d'une porte
+     */
+    private static byte opcode(MemoryComponent porte) {
+        if (porte instanceof PinBuffer) {
+            return OP_SUP; // supremum à une entrée : recopie
+        }
+        switch (porte.getType()) {
+            case AND:
+                return OP_AND;
+            case OR:
+                return OP_OR;
+            case NOT:
+                return OP_NOT;
+            case XOR:
+                return OP_XOR;
+            case NAND:
+                return OP_NAND;
+            case NOR:
+                return OP_NOR;
+            case XNOR:
+                return OP_XNOR;
+            default:
+                throw new IllegalArgumentException("Composant non compilable : " + porte.getType());
+        }
+    }
+
+    /**
+     * @return l'opération des étapes intermédiaires d'une porte à N entrées :
+     *         celle de la porte sans sa négation finale
+     */
+    private static byte operationRepliee(byte opcode) {
+        switch (opcode) {
+            case OP_NAND:
+                return OP_AND;
+            case OP_NOR:
+                return OP_OR;
+            case OP_XNOR:
+                return OP_XOR;
+            default:
+                return opcode;
+        }
+    }
+
+    // -------------- SIMULATION --------------//
+
+    /**
+     * Recharge la valeur des constantes et l'état des registres depuis le
+     * modèle objet.
+     */
+    public void chargerEntrees() {
+        for (int i = 0; i < constantes.length; i++) {
+            valeursEntrees[i] = (byte) constantes[i].getOutputValue().code();
+        }
+        int k = 0;
+        for (Register registre : registres) {
+            for (int b = 0; b < registre.getNombreBits(); b++) {
+                valeursEtats[k++] = (byte) registre.getEtat(b).code();
+            }
+        }
+    }
+
+    /**
+     * Simule le netlist jusqu'à un état stable. Un netlist acyclique est évalué
+     * en une seule passe dans l'ordre topologique ; sinon chaque composante
+     * fortement connexe est évaluée une fois, ou itérée jusqu'à son point fixe
+     * si elle forme une boucle.
+     *
+     * @throws CircuitInstableException si une boucle ne converge pas
+     */
+    public void simuler() throws CircuitInstableException {
+        initialiser();
+        simulerComplet();
+        etatStable = true;
+    }
+
+    /**
+     * Évalue toutes les portes à partir de l'état initialisé.
+     */
+    private void simulerComplet() throws CircuitInstableException {
+        nbIterations = 1;
+        if (acyclique) {
+            evaluerPlage(0, opcodes.length);
+            return;
+        }
+        for (int c = 0; c < boucles.length; c++) {
+            int debut = debutComposantes[c];
+            int fin = debutComposantes[c + 1];
+            if (!boucles[c]) {
+                evaluerPlage(debut, fin);
+                continue;
+            }
+            iterer(debut, fin);
+        }
+    }
+
+    /**
+     * Itère les portes [debut, fin) d'une boucle jusqu'à leur point fixe. Dès
+     * que l'état de la boucle se répète, l'oscillation est signalée avec sa
+     * période et les portes concernées, sans attendre la limite d'itérations.
+     *
+     * @throws CircuitInstableException si la boucle oscille ou ne converge pas
+     */
+    private void iterer(int debut, int fin) throws CircuitInstableException {
+        DetecteurOscillation detecteur = new DetecteurOscillation();
+        int i = 0;
+        while (passe(debut, fin, null)) {
+            nbIterations = Math.max(nbIterations, i + 2);
+            if (++i >= Circuit.MAX_ITERATIONS) {
+                throw new CircuitInstableException("Pas de point fixe après " + Circuit.MAX_ITERATIONS + " itérations");
+            }
+            int periode = detecteur.enregistrer(empreinte(debut, fin), i);
+            if (periode == 0) {
+                continue;
+            }
+
+            // Confirmation : rejouer la période et comparer à l'état exact
+            byte[] etat = new byte[fin - debut];
+            for (int p = debut; p < fin; p++) {
+                etat[p - debut] = valeurs[sorties[p]];
+            }
+            boolean[] oscillantes = new boolean[fin - debut];
+            for (int k = 0; k < periode; k++) {
+                passe(debut, fin, oscillantes);
+            }
+            i += periode;
+            boolean repete = true;
+            for (int p = debut; p < fin && repete; p++) {
+                repete = etat[p - debut] == valeurs[sorties[p]];
+            }
+            if (repete) {
+                List<MemoryComponent> composants = new ArrayList<>();
+                for (int p = debut; p < fin; p++) {
+                    if (oscillantes[p - debut] && portes[p] != null) {
+                        composants.add(portes[p]);
+                    }
+                }
+                throw CircuitInstableException.oscillation(i, periode, composants);
+            }
+        }
+    }
+
+    /**
+     * @return l'empreinte des valeurs de sortie des portes [debut, fin)
+     */
+    private long empreinte(int debut, int fin) {
+        long empreinte = DetecteurOscillation.EMPREINTE_INITIALE;
+        for (int p = debut; p < fin; p++) {
+            empreinte = DetecteurOscillation.melanger(empreinte, valeurs[sorties[p]]);
+        }
+        return empreinte;
+    }
+
+    /**
+     * Simule le netlist en partant du dernier état stable : seules les portes
+     * du cône d'influence des entrées modifiées depuis sont réévaluées, dans
+     * l'ordre topologique. Sans état stable connu, ou si le netlist contient
+     * une boucle, une simulation complète est effectuée.
+     *
+     * @throws CircuitInstableException si la simulation complète ne converge pas
+     */
+    public void simulerIncremental() throws CircuitInstableException {
+        if (!etatStable || !acyclique) {
+            simuler();
+            return;
+        }
+
+        for (int i = 0; i < netsEntrees.length; i++) {
+            if (valeurs[netsEntrees[i]] != valeursEntrees[i]) {
+                valeurs[netsEntrees[i]] = valeursEntrees[i];
+                signaler(netsEntrees[i]);
+            }
+        }
+        for (int k = 0; k < netsEtats.length; k++) {
+            if (valeurs[netsEtats[k]] != valeursEtats[k]) {
+                valeurs[netsEtats[k]] = valeursEtats[k];
+                signaler(netsEtats[k]);
+            }
+        }
+        while (tailleTas > 0) {
+            int p = extraire();
+            enAttente[p] = false;
+            byte v = evaluer(p);
+            if (valeurs[sorties[p]] != v) {
+                valeurs[sorties[p]] = v;
+                signaler(sorties[p]);
+            }
+        }
+    }
+
+    /**
+     * Met en attente les portes lisant un net qui vient de changer.
+     */
+    private void signaler(int net) {
+        for (int k = debutLecteurs[net]; k < debutLecteurs[net + 1]; k++) {
+            int p = lecteurs[k];
+            if (!enAttente[p]) {
+                enAttente[p] = true;
+                inserer(p);
+            }
+        }
+    }
+
+    // Tas binaire minimal : la porte de plus petit indice sort en premier
+    private void inserer(int p) {
+        int i = tailleTas++;
+        while (i > 0 && tas[(i - 1) >> 1] > p) {
+            tas[i] = tas[(i - 1) >> 1];
+            i = (i - 1) >> 1;
+        }
+        tas[i] = p;
+    }
+
+    private int extraire() {
+        int min = tas[0];
+        int dernier = tas[--tailleTas];
+        int i = 0;
+        while (2 * i + 1 < tailleTas) {
+            int fils = 2 * i + 1;
+            if (fils + 1 < tailleTas && tas[fils + 1] < tas[fils]) {
+                fils++;
+            }
+            if (tas[fils] >= dernier) {
+                break;
+            }
+            tas[i] = tas[fils];
+            i = fils;
+        }
+        tas[i] = dernier;
+        return min;
+    }
+
+    /**
+     * Remet tous les nets à NOTHING puis impose la valeur des entrées et de
+     * l'état des registres.
+     */
+    void initialiser() {
+        etatStable = false;
+        Arrays.fill(valeurs, (byte) QuadBool.CODE_NOTHING);
+        for (int i = 0; i < netsEntrees.length; i++) {
+            valeurs[netsEntrees[i]] = valeursEntrees[i];
+        }
+        for (int k = 0; k < netsEtats.length; k++) {
+            valeurs[netsEtats[k]] = valeursEtats[k];
+        }
+        for (int k = 0; k < netsConstantes.length; k++) {
+            valeurs[netsConstantes[k]] = valeursConstantes[k];
+        }
+    }
+
+    /**
+     * Évalue une fois les portes [debut, fin), sans suivre les changements.
+     * Deux plages disjointes d'un même niveau peuvent être évaluées en
+     * parallèle : chaque porte écrit seulement son propre net de sortie.
+     *
+     * @param debut première porte
+     * @param fin   porte suivant la dernière
+     */
+    void evaluerPlage(int debut, int fin) {
+        for (int p = debut; p < fin; p++) {
+            valeurs[sorties[p]] = evaluer(p);
+        }
+    }
+
+    /**
+     * Évalue une fois les portes [debut, fin), dans l'ordre.
+     *
+     * @param modifiees si non null, reçoit vrai pour chaque porte (relative à debut) dont la sortie change
+     * @return true si au moins un net a changé de valeur
+     */
+    private boolean passe(int debut, int fin, boolean[] modifiees) {
+        boolean change = false;
+        for (int p = debut; p < fin; p++) {
+            byte v = evaluer(p);
+            if (valeurs[sorties[p]] != v) {
+                valeurs[sorties[p]] = v;
+                change = true;
+                if (modifiees != null) {
+                    modifiees[p - debut] = true;
+                }
+            }
+        }
+        return change;
+    }
+
+    /**
+     * Calcule la sortie d'une porte à partir des valeurs courantes des nets.
+     *
+     * @param p indice de la porte
+     * @return la valeur de sortie (code de QuadBool)
+     */
+    byte evaluer(int p) {
+        int debut = debutEntrees[p];
+        int a = valeurs[entrees[debut]];
+        int b = debutEntrees[p + 1] - debut > 1 ? valeurs[entrees[debut + 1]] : QuadBool.CODE_NOTHING;
+        return TABLES[opcodes[p]][a << 2 | b];
+    }
+
+    /**
+     * Recopie la valeur des nets dans les fils du modèle objet.
+     */
+    public void appliquer() {
+        for (int i = 0; i < fils.length; i++) {
+            fils[i].setValue(QuadBool.fromCode(valeurs[netsFils[i]]));
+        }
+    }
+
+    // -------------- ACCÈS --------------//
+
+    public int getNombrePortes() {
+        return opcodes.length;
+    }
+
+    public int getNombreNets() {
+        return valeurs.length;
+    }
+
+    public int getNombreEntrees() {
+        return netsEntrees.length;
+    }
+
+    public int getNombreSorties() {
+        return netsSorties.length;
+    }
+
+    /**
+     * @return le nombre de bits de registre, c'est-à-dire de nets d'état
+     */
+    public int getNombreEtats() {
+        return netsEtats.length;
+    }
+
+    /**
+     * @param k indice du bit, dans l'ordre des registres puis de leurs sorties
+     * @return la valeur de ce bit chargée par le dernier {@link #chargerEntrees()}
+     */
+    public QuadBool getEtat(int k) {
+        return QuadBool.fromCode(valeursEtats[k]);
+    }
+
+    /**
+     * @return le nombre de passes nécessaires à la boucle la plus lente lors de
+     *         la dernière simulation complète (1 si le netlist est acyclique)
+     */
+    public int getNombreIterations() {
+        return nbIterations;
+    }
+
+    public boolean isAcyclique() {
+        return acyclique;
+    }
+
+    /**
+     * @return le nombre de composantes fortement connexes formant une boucle
+     */
+    public int getNombreBoucles() {
+        int nombre = 0;
+        for (boolean boucle : boucles) {
+            if (boucle) {
+                nombre++;
+            }
+        }
+        return nombre;
+    }
+
+    /**
+     * @return le nombre de niveaux topologiques, 0 si le netlist contient une boucle
+     */
+    public int getNombreNiveaux() {
+        return Math.max(0, debutNiveaux.length - 1);
+    }
+
+    /**
+     * @param p indice de la porte
+     * @return le composant correspondant à la porte p, null pour une porte de
+     *         résolution (SUP) ou une étape intermédiaire d'une porte à N entrées
+     */
+    public MemoryComponent getPorte(int p) {
+        return portes[p];
+    }
+
+    /**
+     * @param i indice de l'entrée
+     * @return la constante correspondant à l'entrée i
+     */
+    public ConstantComponent getConstante(int i) {
+        return constantes[i];
+    }
+
+    /**
+     * @param i indice de la sortie
+     * @return la LED correspondant à la sortie i
+     */
+    public LedLight getLed(int i) {
+        return leds[i];
+    }
+
+    /**
+     * Fixe la valeur d'une entrée pour les prochaines simulations, sans
+     * modifier la constante du modèle objet.
+     *
+     * @param i      indice de l'entrée
+     * @param valeur nouvelle valeur
+     */
+    public void setEntree(int i, QuadBool valeur) {
+        valeursEntrees[i] = (byte) valeur.code();
+    }
+
+    /**
+     * @param i indice de l'entrée
+     * @return la valeur de l'entrée i utilisée par les prochaines simulations
+     */
+    public QuadBool getEntree(int i) {
+        return QuadBool.fromCode(valeursEntrees[i]);
+    }
+
+    /**
+     * @return le nombre de nets dont la valeur a été fixée par l'optimisation
+     */
+    public int getNombreConstantes() {
+        return netsConstantes.length;
+    }
+
+    /**
+     * @param i indice de la sortie
+     * @return la valeur courante lue par la LED i
+     */
+    public QuadBool getSortie(int i) {
+        return QuadBool.fromCode(valeurs[netsSorties[i]]);
+    }
+}
@@ -19,4 +19,8 @@ public enum ComponentType {
     HIGH,
     LOW,
     LED,
+    SUBCIRCUIT,
+    DFF,
+    REGISTER,
+    CLOCK,
 }
@@ -1,6 +1,9 @@
 package com.fightclub.logisim;
 
 import java.awt.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Objects;
 
 /**
@@ -8,6 +11,7 @@ import java.util.Objects;
  * Un point de connexion peut être une entrée ou une sortie, lié à un composant
  * mémoire parent.
  * Il est utilisé pour connecter des fils entre les composants.
+ * Une entrée reçoit au plus un fil ; une sortie peut en piloter plusieurs.
  */
 public class ConnectionPoint {
 
@@ -17,7 +21,8 @@ public class ConnectionPoint {
     private boolean isInput; // vrai si c'est une entrée, faux si c'est une sortie
     private boolean highlighted = false; // vrai si le point est surligné
     private MemoryComponent parent; // Composant parent auquel ce point est relié
-    private Wire connectedWire;
+    private Wire connectedWire; // premier fil connecté
+    private final List<Wire> wires = new ArrayList<>(1); // tous les fils connectés
 
     // -------------- CONSTRUCTEURS --------------//
 
@@ -49,16 +54,20 @@ public class ConnectionPoint {
     }
 
     /**
-     * Set la valeur logique transportée par le point de connexion.
+     * Remplace les fils connectés à ce point par un seul fil.
      * 
-     * @param value
+     * @param fil le fil, ou null pour déconnecter le point
      */
     public void setWire(Wire fil) {
+        wires.clear();
+        if (fil != null) {
+            wires.add(fil);
+        }
         this.connectedWire = fil;
     }
 
     /**
-     * @return le fil connecté à ce point de connexion
+     * @return le fil connecté à ce point de connexion (le premier pour une sortie)
      * 
      * @author Riyad Derguini
      */
@@ -66,6 +75,23 @@ public class ConnectionPoint {
         return this.connectedWire;
     }
 
+    /**
+     * @return tous les fils connectés à ce point (lecture seule)
+     */
+    public List<Wire> getWires() {
+        return Collections.unmodifiableList(wires);
+    }
+
+    /**
+     * Retire un fil des fils connectés à ce point.
+     * 
+     * @param fil le fil à retirer
+     */
+    public void deconnecterWire(Wire fil) {
+        wires.remove(fil);
+        connectedWire = wires.isEmpty() ? null : wires.get(0);
+    }
+
     // -------------- AUTRES MÉTHODES --------------//`
 
     /**
@@ -170,12 +196,22 @@ public class ConnectionPoint {
         return connectedWire.getValue();
     }
 
+    /**
+     * Connecte un fil à ce point ; une sortie garde tous ses fils.
+     * 
+     * @param wire le fil à connecter
+     * @throws IllegalStateException si ce point est une entrée déjà connectée
+     */
     public void connectWire(Wire wire) {
-        // Laissez l'existant mais ajoutez:
         if (isInput() && this.connectedWire != null) {
             throw new IllegalStateException("Déjà connecté");
         }
-        this.connectedWire = wire;
+        if (!wires.contains(wire)) {
+            wires.add(wire);
+        }
+        if (connectedWire == null) {
+            connectedWire = wire;
+        }
     }
     
     public boolean canConnect() {
@@ -11,7 +11,7 @@ import java.util.ArrayList;
 public class ConstantComponent extends MemoryComponent {
 
     // -------------- ATTRIBUTS --------------//
-    private final QuadBool value;  // Valeur constante (0 ou 1)
+    private QuadBool value;  // Valeur constante (0 ou 1)
 
     // -------------- CONSTRUCTEUR --------------//
 
@@ -65,6 +65,24 @@ public class ConstantComponent extends MemoryComponent {
         return value;
     }
 
+    /**
+     * Inverse la valeur de la constante (0 devient 1 et inversement).
+     */
+    public void basculer() {
+        setOutputValue(value == QuadBool.TRUE ? QuadBool.FALSE : QuadBool.TRUE);
+    }
+
+    /**
+     * Fixe la valeur de la constante, par exemple pour appliquer un vecteur
+     * d'entrée sans passer par l'interface.
+     *
+     * @param value la nouvelle valeur
+     */
+    public void setOutputValue(QuadBool value) {
+        this.value = value;
+        this.type = value == QuadBool.TRUE ? ComponentType.HIGH : ComponentType.LOW;
+    }
+
     /**
      * Cette méthode n'est pas utilisée car un composant constant n'a pas d'entrée.
      
@@ -81,10 +99,18 @@ public class ConstantComponent extends MemoryComponent {
     @Override
     public void compute() {
         if (!outputs.isEmpty()) {
-            outputs.get(0).getWire().setValue(value);
+            ecrireSortie(value);
         }
     }
 
+    /**
+     * La sortie d'un composant constant ne dépend d'aucune entrée.
+     */
+    @Override
+    public QuadBool evaluer(QuadBool[] entrees) {
+        return value;
+    }
+
     // -------------- DESSIN --------------//
 
     /**
@@ -0,0 +1,22 @@
+package com.fightclub.logisim;
+
+/**
+ * Bascule D déclenchée sur front montant : un {@link Register} d'un bit,
+ * d'entrées D et horloge et de sortie Q.
+ */
+public class DFlipFlop extends Register {
+
+    /**
+     * @param id identifiant unique du composant
+     * @param x  position horizontale
+     * @param y  position verticale
+     */
+    public DFlipFlop(int id, int x, int y) {
+        super(id, x, y, 1, ComponentType.DFF);
+    }
+
+    @Override
+    protected String getLibelle() {
+        return "D";
+    }
+}
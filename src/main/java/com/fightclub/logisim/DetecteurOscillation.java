@@ -0,0 +1,43 @@
+package com.fightclub.logisim;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Détection précoce des oscillations par empreinte de l'état.
+ *
+ * Après chaque itération d'une boucle de simulation déterministe, l'empreinte
+ * (hachage FNV-1a) des valeurs est enregistrée. Si une empreinte réapparaît,
+ * l'état s'est probablement répété : l'appelant confirme alors en rejouant
+ * la période supposée et en comparant à une copie exacte de l'état, ce qui
+ * écarte les collisions de hachage.
+ */
+final class DetecteurOscillation {
+
+    static final long EMPREINTE_INITIALE = 0xcbf29ce484222325L;
+    private static final long PREMIER = 0x100000001b3L;
+
+    private final Map<Long, Integer> vues = new HashMap<>();
+
+    /**
+     * Ajoute une valeur à une empreinte en cours de calcul.
+     *
+     * @param empreinte empreinte courante
+     * @param valeur    code de la valeur suivante
+     * @return la nouvelle empreinte
+     */
+    static long melanger(long empreinte, int valeur) {
+        return (empreinte ^ valeur) * PREMIER;
+    }
+
+    /**
+     * Enregistre l'empreinte de l'état atteint après une itération.
+     *
+     * @param empreinte empreinte de l'état
+     * @param iteration numéro de l'itération
+     * @return la période supposée si l'empreinte a déjà été vue, 0 sinon
+     */
+    int enregistrer(long empreinte, int iteration) {
+        Integer precedente = vues.put(empreinte, iteration);
+        return precedente == null ? 0 : iteration - precedente;
+    }
+}
@@ -0,0 +1,99 @@
+package com.fightclub.logisim;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Moteur de simulation événementiel.
+ * Au lieu de balayer tous les fils à chaque itération, seuls les composants
+ * dont une entrée a réellement changé de valeur sont réévalués, via une file
+ * de travail amorcée par les sorties des {@link ConstantComponent}.
+ * Produit le même point fixe que {@link FixedPointEngine}.
+ */
+public class EventDrivenEngine implements SimulationEngine {
+
+    @Override
+    public void simuler(List<MemoryComponent> components, List<Wire> wires) throws CircuitInstableException {
+        // 1. Construction du graphe : nets pilotés par chaque composant
+        Map<MemoryComponent, List<ConnectionPoint>> sortants = new HashMap<>();
+        Map<ConnectionPoint, Net> netsPilotes = new IdentityHashMap<>();
+        for (Net net : Net.construire(wires)) {
+            net.setValue(QuadBool.NOTHING);
+            for (ConnectionPoint pilote : net.getPilotes()) {
+                sortants.computeIfAbsent(pilote.getParentComponent(), c -> new ArrayList<>(1)).add(pilote);
+                netsPilotes.put(pilote, net);
+            }
+        }
+
+        // 2. Amorçage : les constantes d'abord, puis chaque composant pilotant un fil
+        // doit être évalué au moins une fois (une porte sans entrée produit ERR)
+        ArrayDeque<MemoryComponent> file = new ArrayDeque<>();
+        for (MemoryComponent comp : components) {
+            comp.setVisited(false);
+        }
+        for (MemoryComponent comp : components) {
+            if (comp instanceof ConstantComponent && sortants.containsKey(comp)) {
+                enfiler(file, comp);
+            }
+        }
+        for (MemoryComponent comp : components) {
+            if (sortants.containsKey(comp)) {
+                enfiler(file, comp);
+            }
+        }
+
+        // 3. Propagation des changements ; la dernière valeur de chaque sortie
+        // sert à résoudre les nets à plusieurs pilotes sans les réévaluer
+        Map<MemoryComponent, Integer> evaluations = new HashMap<>();
+        Map<ConnectionPoint, QuadBool> sorties = new IdentityHashMap<>();
+        while (!file.isEmpty()) {
+            MemoryComponent comp = file.poll();
+            comp.setVisited(false);
+
+            if (evaluations.merge(comp, 1, Integer::sum) > Circuit.MAX_ITERATIONS) {
+                throw new CircuitInstableException("Pas de point fixe après " + Circuit.MAX_ITERATIONS + " itérations");
+            }
+
+            QuadBool[] valeurs = comp.evaluerSorties(comp.getInputValues());
+            for (ConnectionPoint point : sortants.get(comp)) {
+                sorties.put(point, valeurs.length == 1 ? valeurs[0] : valeurs[comp.indexSortie(point)]);
+            }
+            for (ConnectionPoint point : sortants.get(comp)) {
+                Net net = netsPilotes.get(point);
+                QuadBool nouvelleValeur = sorties.get(point);
+                if (net.getPilotes().size() > 1) {
+                    nouvelleValeur = QuadBool.NOTHING;
+                    for (ConnectionPoint pilote : net.getPilotes()) {
+                        nouvelleValeur = nouvelleValeur.sup(sorties.getOrDefault(pilote, QuadBool.NOTHING));
+                    }
+                }
+                if (net.getValue() != nouvelleValeur) {
+                    net.setValue(nouvelleValeur);
+                    for (ConnectionPoint lecteur : net.getLecteurs()) {
+                        if (sortants.containsKey(lecteur.getParentComponent())) {
+                            enfiler(file, lecteur.getParentComponent());
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Ajoute un composant à la file s'il n'y est pas déjà.
+     */
+    private static void enfiler(ArrayDeque<MemoryComponent> file, MemoryComponent comp) {
+        if (!comp.isVisited()) {
+            comp.setVisited(true);
+            file.add(comp);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Événementiel";
+    }
+}
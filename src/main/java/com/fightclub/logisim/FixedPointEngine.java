@@ -0,0 +1,131 @@
+package com.fightclub.logisim;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Moteur de simulation historique : réévalue tous les nets à chaque itération
+ * jusqu'à ce qu'aucune valeur ne change (point fixe). Chaque pilote d'un net
+ * est évalué une fois par itération, quel que soit le nombre de fils du net.
+ */
+public class FixedPointEngine implements SimulationEngine {
+
+    /**
+     * Simule le circuit jusqu'à trouver un état stable. Si l'état de tous les
+     * fils se répète d'une itération à l'autre, le circuit oscille : la
+     * simulation s'arrête aussitôt et l'exception indique la période et les
+     * composants concernés.
+     * @throws CircuitInstableException si la simulation ne converge pas
+     */
+    @Override
+    public void simuler(List<MemoryComponent> components, List<Wire> wires) throws CircuitInstableException {
+        simuler(components, wires, SimulationProgress.AUCUN);
+    }
+
+    /**
+     * Comme {@link #simuler(List, List)}, en signalant chaque balayage.
+     */
+    @Override
+    public void simuler(List<MemoryComponent> components, List<Wire> wires, SimulationProgress progress)
+            throws CircuitInstableException {
+        // 1. Initialisation
+        List<Net> nets = Net.construire(wires);
+        for (Net net : nets) {
+            net.setValue(QuadBool.NOTHING);
+        }
+
+        // 2. Recherche du point fixe
+        DetecteurOscillation detecteur = new DetecteurOscillation();
+        for (int i = 0; i < Circuit.MAX_ITERATIONS; i++) {
+            progress.avancer(i, Circuit.MAX_ITERATIONS);
+            if (!balayer(nets, null)) {
+                return; // Circuit stable
+            }
+
+            int periode = detecteur.enregistrer(empreinte(nets), i);
+            if (periode > 0) {
+                verifierOscillation(nets, i, periode);
+                i += periode;
+            }
+        }
+
+        throw new CircuitInstableException("Pas de point fixe après " + Circuit.MAX_ITERATIONS + " itérations");
+    }
+
+    /**
+     * Réévalue une fois chaque net.
+     * 
+     * @param nets      nets du circuit
+     * @param modifies  si non null, reçoit vrai pour chaque net dont la valeur change
+     * @return true si au moins un net a changé de valeur
+     */
+    private static boolean balayer(List<Net> nets, boolean[] modifies) {
+        boolean change = false;
+
+        // Pour chaque net
+        for (int k = 0; k < nets.size(); k++) {
+            Net net = nets.get(k);
+            QuadBool nouvelleValeur = net.resoudre();
+
+            // Mettre à jour si nécessaire
+            if (net.getValue() != nouvelleValeur) {
+                net.setValue(nouvelleValeur);
+                change = true;
+                if (modifies != null) {
+                    modifies[k] = true;
+                }
+            }
+        }
+        return change;
+    }
+
+    /**
+     * Confirme une répétition d'empreinte en rejouant la période supposée et
+     * en comparant à l'état exact.
+     * 
+     * @throws CircuitInstableException si l'état se répète effectivement
+     */
+    private static void verifierOscillation(List<Net> nets, int iteration, int periode) throws CircuitInstableException {
+        QuadBool[] etat = new QuadBool[nets.size()];
+        for (int k = 0; k < etat.length; k++) {
+            etat[k] = nets.get(k).getValue();
+        }
+        boolean[] oscillants = new boolean[nets.size()];
+        for (int p = 0; p < periode; p++) {
+            balayer(nets, oscillants);
+        }
+        for (int k = 0; k < etat.length; k++) {
+            if (etat[k] != nets.get(k).getValue()) {
+                return; // collision d'empreinte
+            }
+        }
+
+        List<MemoryComponent> composants = new ArrayList<>();
+        for (int k = 0; k < oscillants.length; k++) {
+            if (!oscillants[k]) {
+                continue;
+            }
+            for (ConnectionPoint pilote : nets.get(k).getPilotes()) {
+                if (!composants.contains(pilote.getParentComponent())) {
+                    composants.add(pilote.getParentComponent());
+                }
+            }
+        }
+        throw CircuitInstableException.oscillation(iteration + periode, periode, composants);
+    }
+
+    /**
+     * @return l'empreinte des valeurs de tous les nets
+     */
+    private static long empreinte(List<Net> nets) {
+        long empreinte = DetecteurOscillation.EMPREINTE_INITIALE;
+        for (Net net : nets) {
+            empreinte = DetecteurOscillation.melanger(empreinte, net.getValue().code());
+        }
+        return empreinte;
+    }
+
+    @Override
+    public String toString() {
+        return "Point fixe";
+    }
+}
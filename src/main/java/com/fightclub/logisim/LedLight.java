@@ -22,13 +22,22 @@ public class LedLight extends MemoryComponent {
 
     @Override
     public void draw(Graphics g, boolean isSelected) {
+        draw(g, isSelected, getInputValue());
+    }
+
+    @Override
+    public void draw(Graphics g, boolean isSelected, SimulationSnapshot valeurs) {
+        draw(g, isSelected, valeurs.valeur(inputs.isEmpty() ? null : inputs.get(0).getWire()));
+    }
+
+    private void draw(Graphics g, boolean isSelected, QuadBool valeur) {
         Graphics2D g2d = (Graphics2D)g;
         
         // Couleur basée sur QuadBool
         Color ledColor;
-        if (getInputValue() == QuadBool.TRUE) {
+        if (valeur == QuadBool.TRUE) {
             ledColor = Color.YELLOW; // Vert vif allumé
-        } else if (getInputValue() == QuadBool.FALSE) {
+        } else if (valeur == QuadBool.FALSE) {
             ledColor = Color.GRAY; // Gris foncé éteint
         } else {
             ledColor = Color.GRAY  ; // Orange pour états spéciaux
@@ -60,4 +69,10 @@ public class LedLight extends MemoryComponent {
         // pas de compute pou le led
         throw new UnsupportedOperationException("Unimplemented method 'compute'");
     }
+
+    @Override
+    public QuadBool evaluer(QuadBool[] entrees) {
+        // une LED ne pilote aucun fil
+        return QuadBool.NOTHING;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,115 @@
+package com.fightclub.logisim;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Moteur de simulation par niveaux pour les circuits combinatoires.
+ * Les composants sont triés topologiquement selon leurs fils d'entrée, puis
+ * chacun est évalué une seule fois dans l'ordre des niveaux, et sa sortie
+ * est propagée à tous les fils de son net. Un {@link Register} ne dépend pas
+ * de ses entrées : une boucle passant par un registre reste évaluée en une
+ * passe. Si le circuit contient une boucle combinatoire, la simulation est
+ * confiée au {@link FixedPointEngine}.
+ */
+public class LevelizedEngine implements SimulationEngine {
+
+    private final SimulationEngine secours = new FixedPointEngine();
+
+    @Override
+    public void simuler(List<MemoryComponent> components, List<Wire> wires) throws CircuitInstableException {
+        List<Net> nets = Net.construire(wires);
+        Map<MemoryComponent, List<ConnectionPoint>> sortants = new HashMap<>();
+        Map<ConnectionPoint, Net> netsPilotes = new IdentityHashMap<>();
+        for (Net net : nets) {
+            net.setValue(QuadBool.NOTHING);
+            for (ConnectionPoint pilote : net.getPilotes()) {
+                sortants.computeIfAbsent(pilote.getParentComponent(), c -> new ArrayList<>(1)).add(pilote);
+                netsPilotes.put(pilote, net);
+            }
+        }
+
+        List<List<MemoryComponent>> niveaux = niveaux(components, nets);
+        if (niveaux == null) {
+            secours.simuler(components, wires); // Boucle détectée
+            return;
+        }
+
+        // Une seule passe, niveau par niveau
+        for (List<MemoryComponent> niveau : niveaux) {
+            for (MemoryComponent comp : niveau) {
+                List<ConnectionPoint> pilotes = sortants.get(comp);
+                if (pilotes == null) {
+                    continue;
+                }
+                // Tous les pilotes d'un net précèdent ses lecteurs : le supremum s'accumule
+                QuadBool[] sorties = comp.evaluerSorties(comp.getInputValues());
+                for (ConnectionPoint pilote : pilotes) {
+                    Net net = netsPilotes.get(pilote);
+                    QuadBool sortie = sorties.length == 1 ? sorties[0] : sorties[comp.indexSortie(pilote)];
+                    net.setValue(net.getValue().sup(sortie));
+                }
+            }
+        }
+    }
+
+    /**
+     * Répartit les composants en niveaux topologiques (algorithme de Kahn) :
+     * un composant appartient au niveau suivant celui de ses prédécesseurs les
+     * plus profonds. Chaque lecteur d'un net dépend de tous ses pilotes, sauf
+     * un registre, dont les sorties ne dépendent que de son état.
+     * 
+     * @param components Composants du circuit
+     * @param nets       Nets du circuit
+     * @return Les niveaux dans l'ordre d'évaluation, ou null si le circuit contient une boucle
+     */
+    static List<List<MemoryComponent>> niveaux(List<MemoryComponent> components, List<Net> nets) {
+        Map<MemoryComponent, List<MemoryComponent>> successeurs = new HashMap<>();
+        Map<MemoryComponent, Integer> degres = new HashMap<>();
+        for (MemoryComponent comp : components) {
+            degres.put(comp, 0);
+        }
+        for (Net net : nets) {
+            for (ConnectionPoint source : net.getPilotes()) {
+                for (ConnectionPoint cible : net.getLecteurs()) {
+                    if (cible.getParentComponent() instanceof Register) {
+                        continue;
+                    }
+                    successeurs.computeIfAbsent(source.getParentComponent(), c -> new ArrayList<>())
+                            .add(cible.getParentComponent());
+                    degres.merge(cible.getParentComponent(), 1, Integer::sum);
+                }
+            }
+        }
+
+        List<List<MemoryComponent>> niveaux = new ArrayList<>();
+        List<MemoryComponent> courant = new ArrayList<>();
+        for (MemoryComponent comp : components) {
+            if (degres.get(comp) == 0) {
+                courant.add(comp);
+            }
+        }
+        int traites = 0;
+        while (!courant.isEmpty()) {
+            niveaux.add(courant);
+            traites += courant.size();
+            List<MemoryComponent> suivant = new ArrayList<>();
+            for (MemoryComponent comp : courant) {
+                for (MemoryComponent succ : successeurs.getOrDefault(comp, List.of())) {
+                    if (degres.merge(succ, -1, Integer::sum) == 0) {
+                        suivant.add(succ);
+                    }
+                }
+            }
+            courant = suivant;
+        }
+        return traites == components.size() ? niveaux : null;
+    }
+
+    @Override
+    public String toString() {
+        return "Par niveaux";
+    }
+}
@@ -0,0 +1,91 @@
+package com.fightclub.logisim;
+import java.util.ArrayList;
+
+/**
+ * Porte logique à N entrées et une sortie (AND, OR, NAND, NOR, XOR, XNOR).
+ * La sortie est calculée en une seule évaluation, par repli à gauche de la
+ * porte à deux entrées sur toutes les entrées (voir {@link QuadBool#and(QuadBool[])}) :
+ * l'ordre des entrées compte, comme pour andz.
+ * La porte s'allonge avec le nombre d'entrées pour garder leurs points de
+ * connexion espacés.
+ */
+public abstract class LogicGate extends MemoryComponent {
+
+    // -------------- ATTRIBUTS --------------//
+
+    public static final int MIN_ENTREES = 2;
+    public static final int MAX_ENTREES = 8;
+    private static final int ESPACEMENT = 20; // distance entre deux entrées
+
+    private final int nbEntrees;
+    private final int marge; // décalage des points de connexion vers l'extérieur
+
+    // -------------- CONSTRUCTEUR --------------//
+
+    /**
+     * @param id        identifiant unique de la porte
+     * @param x         position horizontale
+     * @param y         position verticale
+     * @param type      type de la porte
+     * @param nbEntrees nombre d'entrées, entre {@link #MIN_ENTREES} et {@link #MAX_ENTREES}
+     * @param marge     décalage des points de connexion hors du corps de la porte
+     * @throws IllegalArgumentException si le nombre d'entrées est hors limites
+     */
+    protected LogicGate(int id, int x, int y, ComponentType type, int nbEntrees, int marge) {
+        super(id, x, y);
+        if (nbEntrees < MIN_ENTREES || nbEntrees > MAX_ENTREES) {
+            throw new IllegalArgumentException("Nombre d'entrées invalide pour " + type + " : " + nbEntrees);
+        }
+        this.type = type;
+        this.nbEntrees = nbEntrees;
+        this.marge = marge;
+        initConnectionPoints();
+    }
+
+    // -------------- MÉTHODES --------------//
+
+    /**
+     * @return le nombre d'entrées de la porte
+     */
+    public int getNombreEntrees() {
+        return nbEntrees;
+    }
+
+    @Override
+    protected int getHeight() {
+        return Math.max(super.getHeight(), ESPACEMENT * (nbEntrees + 1));
+    }
+
+    /**
+     * Initialise les points de connexion : les entrées sont réparties
+     * régulièrement sur le côté d'entrée, la sortie au milieu du côté opposé.
+     */
+    @Override
+    protected void initConnectionPoints() {
+        inputs = new ArrayList<>(nbEntrees);
+        outputs = new ArrayList<>(1);
+
+        int w = getWidth();
+        int h = getHeight();
+
+        for (int i = 1; i <= nbEntrees; i++) {
+            switch (getRotationAngle()) {
+                case 0 -> inputs.add(new ConnectionPoint(this, getX() - marge, getY() + i * h / (nbEntrees + 1), true));
+                case 90 -> inputs.add(new ConnectionPoint(this, getX() + i * w / (nbEntrees + 1), getY() - marge, true));
+                case 180 -> inputs.add(new ConnectionPoint(this, getX() + w + marge, getY() + i * h / (nbEntrees + 1), true));
+                case 270 -> inputs.add(new ConnectionPoint(this, getX() + i * w / (nbEntrees + 1), getY() + h + marge, true));
+            }
+        }
+        switch (getRotationAngle()) {
+            case 0 -> outputs.add(new ConnectionPoint(this, getX() + w + marge, getY() + h / 2, false));
+            case 90 -> outputs.add(new ConnectionPoint(this, getX() + w / 2, getY() + h + marge, false));
+            case 180 -> outputs.add(new ConnectionPoint(this, getX() - marge, getY() + h / 2, false));
+            case 270 -> outputs.add(new ConnectionPoint(this, getX() + w / 2, getY() - marge, false));
+        }
+    }
+
+    @Override
+    public void compute() {
+        ecrireSortie(evaluer(getInputValues()));
+    }
+}
@@ -1,11 +1,23 @@
 package com.fightclub.logisim;
 import javax.swing.SwingUtilities;
+import java.util.Arrays;
 
 /**
  * MainApp class serves as the entry point for the application.
+ * Avec l'argument {@code simulate}, lance le mode ligne de commande
+ * ({@link BatchRunner}) au lieu de la fenêtre ; avec {@code batch}, simule
+ * un lot de fichiers en parallèle ({@link BatchService}).
  */
 public class MainApp {
     public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals("simulate")) {
+            BatchRunner.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("batch")) {
+            BatchService.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
         // Démarre l'application (appel au constructeur de CurcuitUI)
         SwingUtilities.invokeLater(Window::new); 
     }
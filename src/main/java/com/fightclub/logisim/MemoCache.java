@@ -0,0 +1,199 @@
+package com.fightclub.logisim;
+import java.util.Arrays;
+
+/**
+ * Cache de taille bornée associant un vecteur d'entrées à un vecteur de
+ * sorties, tous deux empaquetés dans un {@code long} à raison de 2 bits par
+ * valeur (code de {@link QuadBool}). Utilisé par
+ * {@link SubcircuitDefinition} pour ne pas réévaluer un sous-circuit sur des
+ * entrées déjà vues.
+ *
+ * Les entrées sont rangées dans des tableaux primitifs, sans allocation
+ * après la construction. La recherche passe par une table de hachage à
+ * adressage ouvert (sondage linéaire, remplie au plus à moitié) ; quand le
+ * cache est plein, l'entrée remplacée est choisie par l'algorithme de
+ * l'horloge : l'aiguille parcourt les entrées et retire la première qui n'a
+ * pas été relue depuis son dernier passage, approximation du LRU sans liste
+ * chaînée.
+ *
+ * La classe n'est pas synchronisée.
+ */
+public final class MemoCache {
+
+    // -------------- ATTRIBUTS --------------//
+
+    /** Nombre maximal de valeurs par vecteur : les clés restent positives. */
+    public static final int MAX_VALEURS = 31;
+
+    /** Résultat de {@link #chercher(long)} pour une clé absente. */
+    public static final long ABSENT = -1L;
+
+    private final long[] cles;
+    private final long[] valeurs;
+    private final boolean[] reference; // relue depuis le dernier passage de l'aiguille
+    private final int[] index; // emplacement + 1 de chaque clé, 0 si vide
+    private final int masque;
+    private int taille;
+    private int aiguille;
+
+    private long succes;
+    private long defauts;
+
+    // -------------- CONSTRUCTEUR --------------//
+
+    /**
+     * @param capacite nombre maximal d'entrées
+     * @throws IllegalArgumentException si la capacité n'est pas positive
+     */
+    public MemoCache(int capacite) {
+        if (capacite <= 0) {
+            throw new IllegalArgumentException("Capacité invalide : " + capacite);
+        }
+        this.cles = new long[capacite];
+        this.valeurs = new long[capacite];
+        this.reference = new boolean[capacite];
+        this.index = new int[Integer.highestOneBit(capacite) << 2];
+        this.masque = index.length - 1;
+    }
+
+    // -------------- EMPAQUETAGE --------------//
+
+    /**
+     * @param vecteur au plus {@link #MAX_VALEURS} valeurs
+     * @return le vecteur empaqueté, la valeur i dans les bits 2i et 2i + 1
+     */
+    public static long empaqueter(QuadBool[] vecteur) {
+        long paquet = 0;
+        for (int i = 0; i < vecteur.length; i++) {
+            paquet |= (long) vecteur[i].code() << 2 * i;
+        }
+        return paquet;
+    }
+
+    /**
+     * @param paquet vecteur empaqueté par {@link #empaqueter(QuadBool[])}
+     * @param taille nombre de valeurs
+     * @return le vecteur dépaqueté
+     */
+    public static QuadBool[] depaqueter(long paquet, int taille) {
+        QuadBool[] vecteur = new QuadBool[taille];
+        for (int i = 0; i < taille; i++) {
+            vecteur[i] = QuadBool.fromCode((int) (paquet >>> 2 * i) & 3);
+        }
+        return vecteur;
+    }
+
+    // -------------- ACCÈS AU CACHE --------------//
+
+    /**
+     * Cherche les sorties associées à un vecteur d'entrées et compte un
+     * succès ou un défaut.
+     *
+     * @param cle vecteur d'entrées empaqueté
+     * @return les sorties empaquetées, ou {@link #ABSENT}
+     */
+    public long chercher(long cle) {
+        for (int h = hacher(cle); index[h] != 0; h = (h + 1) & masque) {
+            int e = index[h] - 1;
+            if (cles[e] == cle) {
+                reference[e] = true;
+                succes++;
+                return valeurs[e];
+            }
+        }
+        defauts++;
+        return ABSENT;
+    }
+
+    /**
+     * Ajoute une entrée absente du cache, en remplaçant au besoin celle que
+     * désigne l'horloge.
+     *
+     * @param cle    vecteur d'entrées empaqueté
+     * @param valeur vecteur de sorties empaqueté
+     */
+    public void ajouter(long cle, long valeur) {
+        int e;
+        if (taille < cles.length) {
+            e = taille++;
+        } else {
+            while (reference[aiguille]) {
+                reference[aiguille] = false;
+                aiguille = (aiguille + 1) % cles.length;
+            }
+            e = aiguille;
+            aiguille = (aiguille + 1) % cles.length;
+            retirer(cles[e]);
+        }
+        cles[e] = cle;
+        valeurs[e] = valeur;
+        reference[e] = false;
+        int h = hacher(cle);
+        while (index[h] != 0) {
+            h = (h + 1) & masque;
+        }
+        index[h] = e + 1;
+    }
+
+    /**
+     * Vide le cache et remet les compteurs à zéro.
+     */
+    public void vider() {
+        Arrays.fill(index, 0);
+        Arrays.fill(reference, false);
+        taille = 0;
+        aiguille = 0;
+        succes = 0;
+        defauts = 0;
+    }
+
+    /**
+     * Retire une clé de la table de hachage en recompactant la suite de
+     * sondage qui la suit, pour qu'aucune recherche ne s'arrête trop tôt.
+     */
+    private void retirer(long cle) {
+        int trou = hacher(cle);
+        while (cles[index[trou] - 1] != cle) {
+            trou = (trou + 1) & masque;
+        }
+        for (int h = (trou + 1) & masque; index[h] != 0; h = (h + 1) & masque) {
+            int ideal = hacher(cles[index[h] - 1]);
+            // La clé en h peut combler le trou si sa place idéale n'est pas entre les deux
+            boolean entre = trou <= h ? trou < ideal && ideal <= h : trou < ideal || ideal <= h;
+            if (!entre) {
+                index[trou] = index[h];
+                trou = h;
+            }
+        }
+        index[trou] = 0;
+    }
+
+    private int hacher(long cle) {
+        long h = cle * 0x9E3779B97F4A7C15L;
+        return (int) (h >>> 32) & masque;
+    }
+
+    // -------------- STATISTIQUES --------------//
+
+    public int getTaille() {
+        return taille;
+    }
+
+    public int getCapacite() {
+        return cles.length;
+    }
+
+    /**
+     * @return le nombre de recherches abouties depuis la création ou le dernier vidage
+     */
+    public long getSucces() {
+        return succes;
+    }
+
+    /**
+     * @return le nombre de recherches infructueuses depuis la création ou le dernier vidage
+     */
+    public long getDefauts() {
+        return defauts;
+    }
+}
@@ -58,11 +58,11 @@ public abstract class MemoryComponent {
     }
 
     public int getCenterX() {
-        return x + WIDTH / 2;
+        return x + getWidth() / 2;
     }
 
     public int getCenterY() {
-        return y + HEIGHT / 2;
+        return y + getHeight() / 2;
     }
 
     public void setVisited(boolean visited) {
@@ -93,6 +93,21 @@ public abstract class MemoryComponent {
         return outputs;
     }
 
+    /**
+     * Retourne les valeurs actuellement présentes sur les entrées du composant.
+     * Une entrée non connectée vaut {@link QuadBool#NOTHING}.
+     * 
+     * @return Valeurs des entrées, dans l'ordre de {@link #getInputs()}
+     */
+    public QuadBool[] getInputValues() {
+        QuadBool[] valeurs = new QuadBool[inputs.size()];
+        for (int i = 0; i < valeurs.length; i++) {
+            Wire fil = inputs.get(i).getWire();
+            valeurs[i] = fil != null ? fil.getValue() : QuadBool.NOTHING;
+        }
+        return valeurs;
+    }
+
     public List<ConnectionPoint> getAllConnectionPoints() {
         List<ConnectionPoint> allPoints = new ArrayList<>(inputs);
         allPoints.addAll(outputs);
@@ -121,6 +136,53 @@ public abstract class MemoryComponent {
      */
     public abstract void compute();
 
+    /**
+     * Calcule la valeur de sortie du composant à partir des valeurs d'entrée
+     * données, sans modifier aucun fil. Utilisée par les moteurs de simulation.
+     * 
+     * @param entrees Valeurs des entrées, dans l'ordre de {@link #getInputs()}
+     * @return La valeur produite sur la sortie
+     */
+    public abstract QuadBool evaluer(QuadBool[] entrees);
+
+    /**
+     * Calcule la valeur de chaque sortie du composant. Seuls les composants à
+     * plusieurs sorties ont besoin de la redéfinir.
+     *
+     * @param entrees Valeurs des entrées, dans l'ordre de {@link #getInputs()}
+     * @return Les valeurs produites, dans l'ordre de {@link #getOutputs()}
+     */
+    public QuadBool[] evaluerSorties(QuadBool[] entrees) {
+        return new QuadBool[] { evaluer(entrees) };
+    }
+
+    /**
+     * Calcule la valeur produite sur l'une des sorties du composant.
+     *
+     * @param sortie  Point de sortie du composant
+     * @param entrees Valeurs des entrées, dans l'ordre de {@link #getInputs()}
+     * @return La valeur produite sur cette sortie
+     */
+    public QuadBool evaluerSortie(ConnectionPoint sortie, QuadBool[] entrees) {
+        if (outputs.size() <= 1) {
+            return evaluer(entrees);
+        }
+        return evaluerSorties(entrees)[indexSortie(sortie)];
+    }
+
+    /**
+     * @param sortie Point de sortie du composant
+     * @return Son indice dans {@link #getOutputs()} (comparaison par identité)
+     */
+    public int indexSortie(ConnectionPoint sortie) {
+        for (int i = 0; i < outputs.size(); i++) {
+            if (outputs.get(i) == sortie) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
     /**
      * Déplace le composant en centrant sur la nouvelle position et met à jour les
      * points de connexion.
@@ -129,10 +191,10 @@ public abstract class MemoryComponent {
      * @param newY Nouvelle coordonnée Y
      */
     public void moveTo(int newX, int newY) {
-        int dx = newX - (x + WIDTH / 2);
-        int dy = newY - (y + HEIGHT / 2);
-        x = newX - WIDTH / 2;
-        y = newY - HEIGHT / 2;
+        int dx = newX - getCenterX();
+        int dy = newY - getCenterY();
+        x = newX - getWidth() / 2;
+        y = newY - getHeight() / 2;
         for (ConnectionPoint point : inputs) {
             point.move(dx, dy);
         }
@@ -161,8 +223,8 @@ public abstract class MemoryComponent {
      * @return true si le point est à l'intérieur
      */
     public boolean contains(int px, int py) {
-        return px >= x && px <= x + WIDTH &&
-                py >= y && py <= y + HEIGHT;
+        return px >= x && px <= x + getWidth() &&
+                py >= y && py <= y + getHeight();
     }
 
     /**
@@ -182,6 +244,18 @@ public abstract class MemoryComponent {
      */
     public abstract void draw(Graphics g, boolean isSelected);
 
+    /**
+     * Dessine le composant avec les valeurs d'un instantané de simulation.
+     * Seuls les composants qui affichent une valeur ont besoin de la redéfinir.
+     * 
+     * @param g          Contexte graphique
+     * @param isSelected true si le composant est sélectionné
+     * @param valeurs    instantané publié par la dernière simulation
+     */
+    public void draw(Graphics g, boolean isSelected, SimulationSnapshot valeurs) {
+        draw(g, isSelected);
+    }
+
     /**
      * Dessine les points de connexion (rouge pour entrées, vert pour sorties).
      * 
@@ -247,10 +321,20 @@ public abstract class MemoryComponent {
         return inputs.contains(wire.getEnd()) || outputs.contains(wire.getStart());
     }
 
+    /**
+     * Écrit une valeur sur tous les fils pilotés par la première sortie.
+     * 
+     * @param valeur la valeur de sortie
+     */
+    protected void ecrireSortie(QuadBool valeur) {
+        for (Wire fil : outputs.get(0).getWires()) {
+            fil.setValue(valeur);
+        }
+    }
+
     public QuadBool calculerSortie() {
         this.compute();
-        return outputs.get(0).getWire().getValue();
-        
+        return evaluer(getInputValues());
     }
 
   
@@ -1,13 +1,12 @@
 package com.fightclub.logisim;
 import java.awt.*;
 import java.awt.geom.AffineTransform;
-import java.util.ArrayList;
 
 /**
  * Représente une porte logique NAND dans un circuit mémoire.
- * Cette porte hérite de MemoryComponent et définit son apparence graphique.
+ * Cette porte hérite de LogicGate et définit son apparence graphique.
  */
-public class NandGate extends MemoryComponent {
+public class NandGate extends LogicGate {
 
     // --------------constructeur--------------//
 
@@ -24,76 +23,34 @@ public class NandGate extends MemoryComponent {
      * @author Riyad Derguini
      */
     public NandGate(int id, int x, int y, Wire f1, Wire f2) {
-        // Appel du constructeur parent avec un identifiant unique et une position
-        // centrée
-        super(id, x, y);
-        this.type = ComponentType.NAND; // Type de la porte
-        initConnectionPoints();
+        this(id, x, y, 2);
     }
 
-    // --------------méthodes--------------//
-
     /**
-     * Initialise les points de connexion de la porte NAND.
-     * Deux entrées et une sortie sont créées.
+     * Construit une porte NAND à N entrées.
      * 
-     * @author Riyad Derguini
+     * @param id        identifiant unique de la porte
+     * @param x         position horizontale
+     * @param y         position verticale
+     * @param nbEntrees nombre d'entrées
      */
-    @Override
-    protected void initConnectionPoints() {
-        inputs = new ArrayList<>(2);
-        outputs = new ArrayList<>(1);
-        
-        int margin = 2;
-        int w = getWidth();
-        int h = getHeight();
-        
-        switch(getRotationAngle()) {
-            case 0: // →
-                inputs.add(new ConnectionPoint(this, getX() - margin, getY() + h/3, true));
-                inputs.add(new ConnectionPoint(this, getX() - margin, getY() + 2*h/3, true));
-                outputs.add(new ConnectionPoint(this, getX() + w + margin, getY() + h/2, false));
-                break;
-                
-            case 90: // ↑
-                inputs.add(new ConnectionPoint(this, getX() + w/3, getY() - margin, true));
-                inputs.add(new ConnectionPoint(this, getX() + 2*w/3, getY() - margin, true));
-                outputs.add(new ConnectionPoint(this, getX() + w/2, getY() + h , false));
-                break;
-                
-            case 180: // ←
-                inputs.add(new ConnectionPoint(this, getX() + w + margin, getY() + h/3, true));
-                inputs.add(new ConnectionPoint(this, getX() + w + margin, getY() + 2*h/3, true));
-                outputs.add(new ConnectionPoint(this, getX() - margin, getY() + h/2, false));
-                break;
-                
-            case 270: // ↓
-                inputs.add(new ConnectionPoint(this, getX() + w/3, getY() + h + margin, true));
-                inputs.add(new ConnectionPoint(this, getX() + 2*w/3, getY() + h + margin, true));
-                outputs.add(new ConnectionPoint(this, getX() + w/2, getY() - margin, false));
-                break;
-        }
+    public NandGate(int id, int x, int y, int nbEntrees) {
+        super(id, x, y, ComponentType.NAND, nbEntrees, 2);
     }
-    
+
+    // --------------méthodes--------------//
 
     /**
-     * Retourne la valeur de sortie de la porte NAND.
-     * Elle est calculée en effectuant l'opération logique NAND sur les deux
-     * entrées.
-     * Elle utilise la méthode andz et neg de QuadBool pour effectuer l'opération,
-     * ensuite
-     * elle met à jour la valeur de sortie.
+     * Calcule la sortie de la porte NAND : négation du AND de toutes les entrées.
      * 
+     * @param entrees valeurs des entrées
      * @return valeur de sortie
-     * 
-     * @author Riyad Derguini
      */
     @Override
-    public void compute() {
-
-        outputs.get(0).getWire().setValue(QuadBool.neg(inputs.get(0).getValue().andz(inputs.get(1).getValue())));
-
+    public QuadBool evaluer(QuadBool[] entrees) {
+        return QuadBool.nand(entrees);
     }
+
     @Override
     public void draw(Graphics g, boolean isSelected) {
         Graphics2D g2d = (Graphics2D) g;
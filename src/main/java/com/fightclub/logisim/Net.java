@@ -0,0 +1,143 @@
+package com.fightclub.logisim;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Équipotentielle du circuit : l'ensemble des fils reliés entre eux par un
+ * point de connexion commun. Un net a un ou plusieurs pilotes (sorties) et
+ * autant de lecteurs (entrées) que de fils ; tous ses fils portent la même
+ * valeur.
+ *
+ * Quand plusieurs sorties pilotent le même net, sa valeur est le supremum de
+ * leurs sorties ({@link QuadBool#sup}) : deux valeurs contradictoires donnent
+ * ERR, NOTHING est neutre. Chaque pilote n'est évalué qu'une fois par
+ * résolution, quel que soit le nombre de fils du net.
+ */
+public class Net {
+
+    // -------------- ATTRIBUTS --------------//
+
+    private final List<ConnectionPoint> pilotes = new ArrayList<>(1);
+    private final List<ConnectionPoint> lecteurs = new ArrayList<>(2);
+    private final List<Wire> fils = new ArrayList<>(2);
+    private QuadBool value = QuadBool.NOTHING;
+
+    // -------------- CONSTRUCTION --------------//
+
+    /**
+     * Regroupe des fils en nets : deux fils partageant un point de connexion
+     * (en pratique la même sortie) appartiennent au même net.
+     *
+     * @param wires fils du circuit
+     * @return les nets, dans l'ordre de leur premier fil
+     */
+    public static List<Net> construire(List<Wire> wires) {
+        // Union des fils par point de connexion commun (union-find sur les indices de fils)
+        int[] parent = new int[wires.size()];
+        Map<ConnectionPoint, Integer> premierFil = new IdentityHashMap<>();
+        for (int f = 0; f < parent.length; f++) {
+            parent[f] = f;
+            for (ConnectionPoint point : wires.get(f).getConnections()) {
+                Integer autre = premierFil.putIfAbsent(point, f);
+                if (autre != null) {
+                    parent[racine(parent, f)] = racine(parent, autre);
+                }
+            }
+        }
+
+        Map<Integer, Net> parRacine = new HashMap<>();
+        List<Net> nets = new ArrayList<>();
+        for (int f = 0; f < parent.length; f++) {
+            Net net = parRacine.get(racine(parent, f));
+            if (net == null) {
+                net = new Net();
+                parRacine.put(racine(parent, f), net);
+                nets.add(net);
+            }
+            net.fils.add(wires.get(f));
+        }
+        for (Net net : nets) {
+            Set<ConnectionPoint> vus = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (Wire fil : net.fils) {
+                for (ConnectionPoint point : fil.getConnections()) {
+                    if (vus.add(point)) {
+                        (point.isInput() ? net.lecteurs : net.pilotes).add(point);
+                    }
+                }
+            }
+        }
+        return nets;
+    }
+
+    private static int racine(int[] parent, int f) {
+        while (parent[f] != f) {
+            parent[f] = parent[parent[f]];
+            f = parent[f];
+        }
+        return f;
+    }
+
+    // -------------- SIMULATION --------------//
+
+    /**
+     * Évalue une fois chaque pilote à partir de la valeur actuelle de ses
+     * entrées et combine les résultats.
+     *
+     * @return le supremum des sorties des pilotes
+     */
+    public QuadBool resoudre() {
+        QuadBool resultat = QuadBool.NOTHING;
+        for (ConnectionPoint pilote : pilotes) {
+            MemoryComponent comp = pilote.getParentComponent();
+            resultat = resultat.sup(comp.evaluerSortie(pilote, comp.getInputValues()));
+        }
+        return resultat;
+    }
+
+    /**
+     * @return la valeur courante du net
+     */
+    public QuadBool getValue() {
+        return value;
+    }
+
+    /**
+     * Donne une valeur au net et à tous ses fils.
+     *
+     * @param value nouvelle valeur
+     */
+    public void setValue(QuadBool value) {
+        this.value = value;
+        for (Wire fil : fils) {
+            fil.setValue(value);
+        }
+    }
+
+    // -------------- ACCÈS --------------//
+
+    /**
+     * @return les sorties qui pilotent le net (lecture seule)
+     */
+    public List<ConnectionPoint> getPilotes() {
+        return Collections.unmodifiableList(pilotes);
+    }
+
+    /**
+     * @return les entrées qui lisent le net (lecture seule)
+     */
+    public List<ConnectionPoint> getLecteurs() {
+        return Collections.unmodifiableList(lecteurs);
+    }
+
+    /**
+     * @return les fils du net (lecture seule)
+     */
+    public List<Wire> getFils() {
+        return Collections.unmodifiableList(fils);
+    }
+}
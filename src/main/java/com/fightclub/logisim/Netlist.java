@@ -0,0 +1,422 @@
+package com.fightclub.logisim;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Modèle d'un circuit indépendant de l'interface graphique : la liste des
+ * composants et des fils, les opérations d'édition et le format texte de
+ * sauvegarde. Il peut être manipulé et simulé (voir {@link Simulator}) sans
+ * créer aucun composant Swing, y compris avec {@code java.awt.headless=true}.
+ *
+ * Chaque modification de structure incrémente une révision, ce qui permet aux
+ * simulateurs de savoir quand invalider ce qu'ils ont précalculé. Les
+ * modifications se synchronisent sur le netlist, comme {@link Simulator}, afin
+ * qu'une simulation lancée depuis un autre thread ne voie jamais une
+ * structure à moitié modifiée.
+ */
+public class Netlist {
+
+    // -------------- ATTRIBUTS --------------//
+
+    private final List<MemoryComponent> components = new ArrayList<>();
+    private final List<Wire> wires = new ArrayList<>();
+    private int revision;
+
+    // -------------- ACCÈS --------------//
+
+    /**
+     * @return les composants du circuit (lecture seule)
+     */
+    public List<MemoryComponent> getComponents() {
+        return Collections.unmodifiableList(components);
+    }
+
+    /**
+     * @return les fils du circuit (lecture seule)
+     */
+    public List<Wire> getWires() {
+        return Collections.unmodifiableList(wires);
+    }
+
+    /**
+     * @return les constantes du circuit, c'est-à-dire ses entrées
+     */
+    public List<ConstantComponent> getEntrees() {
+        List<ConstantComponent> entrees = new ArrayList<>();
+        for (MemoryComponent comp : components) {
+            if (comp instanceof ConstantComponent constante) {
+                entrees.add(constante);
+            }
+        }
+        return entrees;
+    }
+
+    /**
+     * @return les LED du circuit, c'est-à-dire ses sorties
+     */
+    public List<LedLight> getSorties() {
+        List<LedLight> sorties = new ArrayList<>();
+        for (MemoryComponent comp : components) {
+            if (comp instanceof LedLight led) {
+                sorties.add(led);
+            }
+        }
+        return sorties;
+    }
+
+    /**
+     * @return les registres et bascules du circuit, c'est-à-dire son état
+     */
+    public List<Register> getRegistres() {
+        List<Register> registres = new ArrayList<>();
+        for (MemoryComponent comp : components) {
+            if (comp instanceof Register registre) {
+                registres.add(registre);
+            }
+        }
+        return registres;
+    }
+
+    /**
+     * @return les horloges du circuit, parmi ses entrées
+     */
+    public List<ClockComponent> getHorloges() {
+        List<ClockComponent> horloges = new ArrayList<>();
+        for (MemoryComponent comp : components) {
+            if (comp instanceof ClockComponent horloge) {
+                horloges.add(horloge);
+            }
+        }
+        return horloges;
+    }
+
+    /**
+     * @return le numéro de révision, incrémenté à chaque modification de structure
+     */
+    public int getRevision() {
+        return revision;
+    }
+
+    /**
+     * @return un identifiant libre pour un nouveau composant
+     */
+    public int prochainId() {
+        return components.size() + 1;
+    }
+
+    // -------------- ÉDITION --------------//
+
+    /**
+     * Ajoute un composant au circuit.
+     *
+     * @param comp le composant à ajouter
+     */
+    public synchronized void ajouterComposant(MemoryComponent comp) {
+        components.add(comp);
+        modifie();
+    }
+
+    /**
+     * Relie une sortie à une entrée par un nouveau fil.
+     *
+     * @param sortie point de départ (sortie)
+     * @param entree point d'arrivée (entrée libre)
+     * @return le fil créé
+     * @throws IllegalArgumentException si les directions ne sont pas respectées
+     * @throws IllegalStateException    si l'entrée est déjà connectée
+     */
+    public synchronized Wire connecter(ConnectionPoint sortie, ConnectionPoint entree) {
+        Wire fil = new Wire(sortie, entree);
+        entree.connectWire(fil);
+        sortie.connectWire(fil);
+        wires.add(fil);
+        modifie();
+        return fil;
+    }
+
+    /**
+     * Ajoute une sortie supplémentaire sur un fil existant : le net du fil a
+     * alors plusieurs pilotes, dont les valeurs sont combinées par
+     * {@link QuadBool#sup}.
+     *
+     * @param fil    le fil à piloter
+     * @param sortie la sortie à ajouter
+     * @throws IllegalArgumentException si le point n'est pas une sortie
+     */
+    public synchronized void ajouterPilote(Wire fil, ConnectionPoint sortie) {
+        if (sortie.isInput()) {
+            throw new IllegalArgumentException("Seule une sortie peut piloter un fil");
+        }
+        fil.addConnection(sortie);
+        sortie.connectWire(fil);
+        modifie();
+    }
+
+    /**
+     * Supprime un composant et tous les fils qui lui sont reliés. Un fil dont
+     * le composant n'était qu'un pilote supplémentaire est conservé.
+     *
+     * @param comp le composant à supprimer
+     */
+    public synchronized void supprimerComposant(MemoryComponent comp) {
+        List<Wire> toRemove = new ArrayList<>();
+        for (Wire w : wires) {
+            if (w.getStart().getParentComponent() == comp || w.getEnd().getParentComponent() == comp) {
+                toRemove.add(w);
+            } else {
+                for (ConnectionPoint sortie : comp.getOutputs()) {
+                    w.removeConnection(sortie);
+                }
+            }
+        }
+        for (Wire w : toRemove) {
+            detacher(w);
+        }
+        wires.removeAll(toRemove);
+        components.remove(comp);
+        modifie();
+    }
+
+    /**
+     * Supprime un fil.
+     *
+     * @param fil le fil à supprimer
+     */
+    public synchronized void supprimerFil(Wire fil) {
+        wires.remove(fil);
+        detacher(fil);
+        modifie();
+    }
+
+    /**
+     * Déconnecte un fil de tous ses points.
+     */
+    private void detacher(Wire fil) {
+        for (ConnectionPoint point : fil.getConnections()) {
+            point.deconnecterWire(fil);
+        }
+    }
+
+    /**
+     * Supprime tous les composants et fils.
+     */
+    public synchronized void vider() {
+        components.clear();
+        wires.clear();
+        modifie();
+    }
+
+    /**
+     * Signale une modification de structure faite directement sur un composant
+     * (par exemple une rotation, qui recrée ses points de connexion).
+     */
+    public synchronized void modifie() {
+        revision++;
+    }
+
+    /**
+     * Compile l'état actuel du circuit en netlist à plat.
+     *
+     * @return le netlist compilé
+     */
+    public CompiledNetlist compiler() {
+        return CompiledNetlist.compiler(components, wires);
+    }
+
+    // -------------- FORMAT TEXTE --------------//
+
+    public String exportAsText() {
+        StringBuilder sb = new StringBuilder();
+
+        for (MemoryComponent comp : components) {
+            sb.append("Composant:");
+            sb.append(" type=").append(comp.getClass().getSimpleName());
+            sb.append(" id=").append(comp.getId());
+            sb.append(" x=").append(comp.getX());
+            sb.append(" y=").append(comp.getY());
+
+            // Exporter valeur si ConstantComponent
+            if (comp instanceof ConstantComponent constant) {
+                sb.append(" value=").append(constant.getOutputValue());
+            }
+
+            // Nombre d'entrées d'une porte, s'il diffère de 2
+            if (comp instanceof LogicGate porte && porte.getNombreEntrees() != 2) {
+                sb.append(" entrees=").append(porte.getNombreEntrees());
+            }
+
+            // Largeur d'un registre, s'il diffère de 2
+            if (comp instanceof Register registre && !(comp instanceof DFlipFlop) && registre.getNombreBits() != 2) {
+                sb.append(" entrees=").append(registre.getNombreBits());
+            }
+
+            // Fichier de définition d'un sous-circuit, encodé pour ne pas contenir d'espace
+            if (comp instanceof Subcircuit sousCircuit) {
+                sb.append(" fichier=").append(URLEncoder.encode(
+                        sousCircuit.getDefinition().getFichier().getPath(), StandardCharsets.UTF_8));
+            }
+
+            sb.append("\n");
+        }
+
+        for (Wire wire : wires) {
+            MemoryComponent fromComp = wire.getStart().getParentComponent();
+            MemoryComponent toComp = wire.getEnd().getParentComponent();
+
+            int fromId = fromComp.getId();
+            int toId = toComp.getId();
+
+            int fromIndex = fromComp.getOutputs().indexOf(wire.getStart());
+            int toIndex = toComp.getInputs().indexOf(wire.getEnd());
+
+            sb.append("Connexion: from=").append(fromId).append(".").append(fromIndex)
+                    .append(" to=").append(toId).append(".").append(toIndex);
+
+            // Pilotes supplémentaires du même fil
+            for (ConnectionPoint pilote : wire.getPilotes()) {
+                if (pilote != wire.getStart()) {
+                    MemoryComponent comp = pilote.getParentComponent();
+                    sb.append(" from=").append(comp.getId()).append(".").append(comp.getOutputs().indexOf(pilote));
+                }
+            }
+            sb.append("\n");
+        }
+
+        return sb.toString();
+    }
+
+    /**
+     * Charge un circuit sauvegardé par {@link #exportAsText()}.
+     *
+     * @param file le fichier à lire
+     * @return le circuit chargé
+     * @throws IOException en cas d'erreur de lecture
+     */
+    public static Netlist importFromFile(File file) throws IOException {
+        Netlist netlist = new Netlist();
+        netlist.importer(Files.readAllLines(file.toPath()));
+        return netlist;
+    }
+
+    /**
+     * Remplace le contenu du circuit par celui décrit par les lignes données.
+     *
+     * @param lignes lignes au format de {@link #exportAsText()}
+     */
+    public synchronized void importer(List<String> lignes) {
+        components.clear();
+        wires.clear();
+
+        Map<Integer, MemoryComponent> idMap = new HashMap<>();
+
+        for (String ligne : lignes) {
+            if (ligne.startsWith("Composant:")) {
+                String[] parts = ligne.split(" ");
+                String type = parts[1].split("=")[1];
+                int id = Integer.parseInt(parts[2].split("=")[1]);
+                int x = Integer.parseInt(parts[3].split("=")[1]);
+                int y = Integer.parseInt(parts[4].split("=")[1]);
+
+                // Nombre d'entrées des portes ou de bits des registres (2 s'il
+                // est absent), valeur des constantes et fichier des sous-circuits
+                int nbEntrees = 2;
+                QuadBool valeur = QuadBool.FALSE;
+                String fichier = null;
+                for (String part : parts) {
+                    if (part.startsWith("entrees=")) {
+                        nbEntrees = Integer.parseInt(part.split("=")[1]);
+                    } else if (part.startsWith("value=")) {
+                        valeur = QuadBool.valueOf(part.split("=")[1]);
+                    } else if (part.startsWith("fichier=")) {
+                        fichier = URLDecoder.decode(part.substring("fichier=".length()), StandardCharsets.UTF_8);
+                    }
+                }
+
+                MemoryComponent comp;
+                if (type.equals("Subcircuit")) {
+                    try {
+                        comp = new Subcircuit(id, x, y, SubcircuitDefinition.charger(new File(fichier)));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException("Sous-circuit illisible : " + fichier, e);
+                    }
+                } else {
+                    comp = creerComposant(type, id, x, y, nbEntrees, valeur);
+                }
+
+                if (comp != null) {
+                    idMap.put(id, comp);
+                    components.add(comp);
+                }
+
+            } else if (ligne.startsWith("Connexion:")) {
+                String[] parts = ligne.split(" ");
+                String from = parts[1].split("=")[1];
+                String to = parts[2].split("=")[1];
+
+                int fromId = Integer.parseInt(from.split("\\.")[0]);
+                int fromIndex = Integer.parseInt(from.split("\\.")[1]);
+                int toId = Integer.parseInt(to.split("\\.")[0]);
+                int toIndex = Integer.parseInt(to.split("\\.")[1]);
+
+                ConnectionPoint src = idMap.get(fromId).getOutputs().get(fromIndex);
+                ConnectionPoint dst = idMap.get(toId).getInputs().get(toIndex);
+
+                Wire wire = new Wire(src, dst);
+                src.connectWire(wire);
+                dst.connectWire(wire);
+                wires.add(wire);
+
+                // Pilotes supplémentaires : from=id.index après l'arrivée
+                for (int k = 3; k < parts.length; k++) {
+                    String[] pilote = parts[k].split("=")[1].split("\\.");
+                    ConnectionPoint sortie = idMap.get(Integer.parseInt(pilote[0])).getOutputs()
+                            .get(Integer.parseInt(pilote[1]));
+                    wire.addConnection(sortie);
+                    sortie.connectWire(wire);
+                }
+            }
+        }
+
+        modifie();
+    }
+
+    /**
+     * Crée un composant élémentaire (porte, constante, horloge, registre ou
+     * LED) à partir du nom de sa classe, tel qu'écrit par {@link #exportAsText()}.
+     *
+     * @param type      nom simple de la classe du composant
+     * @param id        identifiant du composant
+     * @param x         position horizontale
+     * @param y         position verticale
+     * @param nbEntrees nombre d'entrées d'une porte ou de bits d'un registre
+     * @param valeur    valeur d'une constante ou d'une horloge
+     * @return le composant, ou null si le type est inconnu
+     */
+    static MemoryComponent creerComposant(String type, int id, int x, int y, int nbEntrees, QuadBool valeur) {
+        return switch (type) {
+            case "AndGate" -> new AndGate(id, x, y, nbEntrees);
+            case "OrGate" -> new OrGate(id, x, y, nbEntrees);
+            case "NotGate" -> new NotGate(id, x, y, null);
+            case "XorGate" -> new XorGate(id, x, y, nbEntrees);
+            case "NandGate" -> new NandGate(id, x, y, nbEntrees);
+            case "NorGate" -> new NorGate(id, x, y, nbEntrees);
+            case "XnorGate" -> new XnorGate(id, x, y, nbEntrees);
+            case "LedLight" -> new LedLight(id, x, y);
+            case "ConstantComponent" -> new ConstantComponent(id, valeur, x, y);
+            case "ClockComponent" -> new ClockComponent(id, valeur, x, y);
+            case "DFlipFlop" -> new DFlipFlop(id, x, y);
+            case "Register" -> new Register(id, x, y, nbEntrees);
+            default -> null;
+        };
+    }
+}
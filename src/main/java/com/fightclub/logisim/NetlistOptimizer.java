@@ -0,0 +1,329 @@
+package com.fightclub.logisim;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Optimisation d'un {@link CompiledNetlist} avant simulation. Le circuit édité
+ * (composants et fils) n'est jamais modifié : seul un nouveau netlist est produit.
+ *
+ * Pour chaque net, l'optimiseur calcule l'ensemble des valeurs qu'il peut
+ * prendre une fois la porte qui le pilote évaluée (4 bits, un par code de
+ * {@link QuadBool}) : NOTHING pour les entrées non connectées, la valeur des
+ * entrées figées, toutes les valeurs pour les entrées libres et les bits de
+ * registre. En parcourant
+ * les portes dans l'ordre topologique, avec les tables de vérité exactes :
+ * <ul>
+ * <li>une porte dont la sortie ne peut prendre qu'une valeur devient un net constant ;</li>
+ * <li>une porte qui recopie toujours l'une de ses entrées est remplacée par ce net ;</li>
+ * <li>une porte qui en est toujours la négation devient une porte NON ;</li>
+ * <li>NON(NON(x)) est remplacé par x, seulement si x ne peut pas valoir NOTHING
+ * (neg(neg(NOTHING)) vaut ERR) ;</li>
+ * <li>une porte de même opération sur les mêmes nets qu'une porte déjà vue
+ * est fusionnée avec elle (hachage structurel) ; l'ordre des entrées ne
+ * compte que pour les opérations non commutatives, comme andz ;</li>
+ * <li>enfin, les portes dont aucune LED ni aucun registre ne dépend sont supprimées ;
+ * avec {@link #conserverFils()}, celles dont un fil dépend sont aussi gardées.</li>
+ * </ul>
+ * Les portes d'une boucle ne sont jamais modifiées : leur résultat dépend de
+ * l'ordre d'évaluation à partir de NOTHING. Elles sont aussi conservées avec
+ * tout ce qui les alimente, une boucle instable devant le rester.
+ */
+public class NetlistOptimizer {
+
+    /** Valeurs possibles d'un net pouvant valoir n'importe quoi. */
+    private static final int TOUTES = 0b1111;
+
+    /** Valeurs possibles de la sortie d'une porte évaluée : jamais NOTHING. */
+    private static final int SAUF_NOTHING = TOUTES & ~(1 << QuadBool.CODE_NOTHING);
+
+    /** Vrai pour les opérations dont la table est symétrique en a et b. */
+    private static final boolean[] COMMUTATIVES = new boolean[CompiledNetlist.TABLES.length];
+
+    static {
+        for (int op = 0; op < COMMUTATIVES.length; op++) {
+            byte[] table = CompiledNetlist.TABLES[op];
+            boolean symetrique = true;
+            for (int i = 0; i < 16; i++) {
+                symetrique &= table[i] == table[(i & 3) << 2 | i >> 2];
+            }
+            COMMUTATIVES[op] = symetrique;
+        }
+    }
+
+    // États d'une porte
+    private static final byte GARDEE = 0;
+    private static final byte CONSTANTE = 1;
+    private static final byte REMPLACEE = 2;
+
+    // -------------- ATTRIBUTS --------------//
+
+    private final CompiledNetlist netlist;
+    private final boolean[] figees; // entrées dont la valeur ne changera plus
+    private boolean filsVivants; // les nets lus par les fils sont des racines, comme les LED
+    private int nbConstantes;
+    private int nbRemplacees;
+    private int nbFusionnees;
+    private int nbMortes;
+
+    // -------------- CONSTRUCTEUR --------------//
+
+    /**
+     * Crée un optimiseur dont toutes les entrées sont libres : seules les
+     * entrées non connectées sont des constantes.
+     *
+     * @param netlist le netlist à optimiser ; il n'est pas modifié
+     */
+    public NetlistOptimizer(CompiledNetlist netlist) {
+        this.netlist = netlist;
+        this.figees = new boolean[netlist.getNombreEntrees()];
+    }
+
+    /**
+     * Fige une entrée à sa valeur actuelle dans le netlist : elle sera propagée
+     * comme une constante, et un changement ultérieur sera ignoré par les
+     * portes simplifiées.
+     *
+     * @param i indice de l'entrée
+     */
+    public void figer(int i) {
+        figees[i] = true;
+    }
+
+    /**
+     * Fige toutes les entrées, pour un circuit simulé une seule fois.
+     */
+    public void figerEntrees() {
+        Arrays.fill(figees, true);
+    }
+
+    /**
+     * Garde toutes les portes dont dépend la valeur d'un fil, pour un netlist
+     * dont les fils sont affichés dans l'éditeur : sans cela, un fil qui ne
+     * mène à aucune LED ne serait plus mis à jour.
+     */
+    public void conserverFils() {
+        filsVivants = true;
+    }
+
+    // -------------- OPTIMISATION --------------//
+
+    /**
+     * @return le netlist optimisé, avec les mêmes entrées et sorties
+     */
+    public CompiledNetlist optimiser() {
+        int nbPortes = netlist.getNombrePortes();
+        int nbNets = netlist.getNombreNets();
+        int[] debutEntrees = netlist.debutEntrees;
+        int[] sorties = netlist.sorties;
+        byte[] opcodes = netlist.opcodes.clone();
+        int[] entrees = netlist.entrees.clone();
+
+        int[] remplacement = new int[nbNets];
+        Arrays.setAll(remplacement, n -> n);
+        int[] possibles = new int[nbNets];
+        possibles[CompiledNetlist.NET_NON_CONNECTE] = 1 << QuadBool.CODE_NOTHING;
+        for (int i = 0; i < figees.length; i++) {
+            possibles[netlist.netsEntrees[i]] = figees[i] ? 1 << netlist.getEntree(i).code() : TOUTES;
+        }
+        for (int net : netlist.netsEtats) {
+            possibles[net] = TOUTES; // l'état d'un registre change d'un cycle à l'autre
+        }
+        int[] pilote = new int[nbNets];
+        Arrays.fill(pilote, -1);
+        for (int p = 0; p < nbPortes; p++) {
+            pilote[sorties[p]] = p;
+        }
+        boolean[] enBoucle = new boolean[nbPortes];
+        for (int c = 0; c < netlist.boucles.length; c++) {
+            if (netlist.boucles[c]) {
+                Arrays.fill(enBoucle, netlist.debutComposantes[c], netlist.debutComposantes[c + 1], true);
+            }
+        }
+
+        // 1. Propagation dans l'ordre topologique
+        byte[] etats = new byte[nbPortes];
+        int[] netsFixes = new int[nbPortes];
+        byte[] valeursFixes = new byte[nbPortes];
+        Map<Long, Integer> representants = new HashMap<>();
+        nbConstantes = 0;
+        nbRemplacees = 0;
+        nbFusionnees = 0;
+        for (int p = 0; p < nbPortes; p++) {
+            int debut = debutEntrees[p];
+            for (int k = debut; k < debutEntrees[p + 1]; k++) {
+                entrees[k] = remplacement[entrees[k]];
+            }
+            int sortie = sorties[p];
+            if (enBoucle[p]) {
+                possibles[sortie] = SAUF_NOTHING;
+                continue;
+            }
+            int a = entrees[debut];
+            int b = debutEntrees[p + 1] - debut > 1 ? entrees[debut + 1] : CompiledNetlist.NET_NON_CONNECTE;
+
+            // Image de la table sur les valeurs possibles des entrées
+            byte[] table = CompiledNetlist.TABLES[opcodes[p]];
+            int image = 0;
+            boolean copieA = true, copieB = true, negA = true, negB = true;
+            for (int va = 0; va < 4; va++) {
+                if ((possibles[a] >> va & 1) == 0) {
+                    continue;
+                }
+                for (int vb = 0; vb < 4; vb++) {
+                    // Un même net sur les deux entrées a la même valeur des deux côtés
+                    if ((possibles[b] >> vb & 1) == 0 || a == b && va != vb) {
+                        continue;
+                    }
+                    int r = table[va << 2 | vb];
+                    image |= 1 << r;
+                    copieA &= r == va;
+                    copieB &= r == vb;
+                    negA &= r == QuadBool.neg(va);
+                    negB &= r == QuadBool.neg(vb);
+                }
+            }
+
+            if (Integer.bitCount(image) == 1) {
+                etats[p] = CONSTANTE;
+                possibles[sortie] = image;
+                netsFixes[nbConstantes] = sortie;
+                valeursFixes[nbConstantes++] = (byte) Integer.numberOfTrailingZeros(image);
+                continue;
+            }
+            if (copieA || copieB) {
+                etats[p] = REMPLACEE;
+                remplacement[sortie] = copieA ? a : b;
+                nbRemplacees++;
+                continue;
+            }
+            if (opcodes[p] != CompiledNetlist.OP_NOT && (negA || negB)) {
+                opcodes[p] = CompiledNetlist.OP_NOT;
+                entrees[debut] = negA ? a : b;
+                a = entrees[debut];
+            }
+            if (opcodes[p] == CompiledNetlist.OP_NOT) {
+                // Double négation : exacte seulement si x ne vaut jamais NOTHING
+                int q = pilote[a];
+                if (q >= 0 && etats[q] == GARDEE && !enBoucle[q] && opcodes[q] == CompiledNetlist.OP_NOT) {
+                    int x = entrees[debutEntrees[q]];
+                    if ((possibles[x] & 1 << QuadBool.CODE_NOTHING) == 0) {
+                        etats[p] = REMPLACEE;
+                        remplacement[sortie] = x;
+                        nbRemplacees++;
+                        continue;
+                    }
+                }
+            }
+
+            // Hachage structurel sur (opération, nets d'entrée)
+            if (opcodes[p] == CompiledNetlist.OP_NOT) {
+                b = CompiledNetlist.NET_NON_CONNECTE;
+            } else if (COMMUTATIVES[opcodes[p]] && a > b) {
+                int echange = a;
+                a = b;
+                b = echange;
+            }
+            Integer representant = representants.putIfAbsent(cle(opcodes[p], a, b), p);
+            if (representant != null) {
+                etats[p] = REMPLACEE;
+                remplacement[sortie] = sorties[representant];
+                nbFusionnees++;
+                continue;
+            }
+            possibles[sortie] = image;
+        }
+
+        // 2. Portes vivantes : celles dont dépend une LED, un registre ou une boucle
+        boolean[] vivantes = new boolean[nbPortes];
+        int[] pile = new int[nbPortes];
+        int hauteur = 0;
+        int[] netsFils = filsVivants ? netlist.netsFils : new int[0];
+        int[] racines = Arrays.copyOf(netlist.netsSorties,
+                netlist.netsSorties.length + netlist.netsRegistres.length + netsFils.length);
+        System.arraycopy(netlist.netsRegistres, 0, racines, netlist.netsSorties.length, netlist.netsRegistres.length);
+        System.arraycopy(netsFils, 0, racines, netlist.netsSorties.length + netlist.netsRegistres.length, netsFils.length);
+        for (int net : racines) {
+            int q = pilote[remplacement[net]];
+            if (q >= 0 && etats[q] == GARDEE && !vivantes[q]) {
+                vivantes[q] = true;
+                pile[hauteur++] = q;
+            }
+        }
+        for (int p = 0; p < nbPortes; p++) {
+            if (enBoucle[p] && !vivantes[p]) {
+                vivantes[p] = true;
+                pile[hauteur++] = p;
+            }
+        }
+        while (hauteur > 0) {
+            int p = pile[--hauteur];
+            int fin = opcodes[p] == CompiledNetlist.OP_NOT ? debutEntrees[p] + 1 : debutEntrees[p + 1];
+            for (int k = debutEntrees[p]; k < fin; k++) {
+                int q = pilote[entrees[k]];
+                if (q >= 0 && etats[q] == GARDEE && !vivantes[q]) {
+                    vivantes[q] = true;
+                    pile[hauteur++] = q;
+                }
+            }
+        }
+        nbMortes = 0;
+        for (int p = 0; p < nbPortes; p++) {
+            if (etats[p] == GARDEE && !vivantes[p]) {
+                nbMortes++;
+            }
+        }
+
+        return netlist.reduire(vivantes, opcodes, entrees, remplacement,
+                Arrays.copyOf(netsFixes, nbConstantes), Arrays.copyOf(valeursFixes, nbConstantes));
+    }
+
+    /**
+     * @return la clé de hachage structurel d'une porte (moins de 2^30 nets)
+     */
+    private static long cle(byte opcode, int a, int b) {
+        return ((long) a << 31 | b) << 3 | opcode;
+    }
+
+    // -------------- BILAN --------------//
+
+    /**
+     * Les portes comptées sont celles du netlist compilé, pas les composants
+     * de l'éditeur : une porte à N entrées compte pour N - 1 portes, et la
+     * résolution d'un net à plusieurs pilotes est une porte à part entière.
+     * Il en va de même pour les compteurs détaillés ci-dessous.
+     *
+     * @return le nombre total de portes compilées supprimées par la dernière optimisation
+     */
+    public int getPortesSupprimees() {
+        return nbConstantes + nbRemplacees + nbFusionnees + nbMortes;
+    }
+
+    /**
+     * @return le nombre de portes remplacées par une constante
+     */
+    public int getPortesConstantes() {
+        return nbConstantes;
+    }
+
+    /**
+     * @return le nombre de portes remplacées par l'une de leurs entrées (dont les doubles négations)
+     */
+    public int getPortesRemplacees() {
+        return nbRemplacees;
+    }
+
+    /**
+     * @return le nombre de portes fusionnées avec une porte identique
+     */
+    public int getPortesFusionnees() {
+        return nbFusionnees;
+    }
+
+    /**
+     * @return le nombre de portes dont aucune LED ni aucun registre (ni aucun fil, avec {@link #conserverFils()}) ne dépend
+     */
+    public int getPortesMortes() {
+        return nbMortes;
+    }
+}
@@ -0,0 +1,78 @@
+package com.fightclub.logisim;
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Path2D;
+
+/**
+ * Représente une porte logique NOR dans un circuit mémoire.
+ * Cette porte hérite de LogicGate et définit son apparence graphique.
+ */
+public class NorGate extends LogicGate {
+
+    // --------------constructeur--------------//
+
+    /**
+     * Construit une porte NOR à N entrées.
+     * 
+     * @param id        identifiant unique de la porte
+     * @param x         position horizontale
+     * @param y         position verticale
+     * @param nbEntrees nombre d'entrées
+     */
+    public NorGate(int id, int x, int y, int nbEntrees) {
+        super(id, x, y, ComponentType.NOR, nbEntrees, 3);
+    }
+
+    // --------------méthodes--------------//
+
+    /**
+     * Calcule la sortie de la porte NOR : négation du OR de toutes les entrées.
+     * 
+     * @param entrees valeurs des entrées
+     * @return valeur de sortie
+     */
+    @Override
+    public QuadBool evaluer(QuadBool[] entrees) {
+        return QuadBool.nor(entrees);
+    }
+
+    @Override
+    public void draw(Graphics g, boolean isSelected) {
+        Graphics2D g2d = (Graphics2D) g;
+        AffineTransform oldTransform = g2d.getTransform();
+
+        g2d.translate(getX() + getWidth() / 2, getY() + getHeight() / 2);
+        g2d.rotate(Math.toRadians(getRotationAngle()));
+        g2d.translate(-getWidth() / 2, -getHeight() / 2);
+
+        // Corps de la porte OR, raccourci pour laisser la place à la bulle
+        g2d.setColor(Color.LIGHT_GRAY);
+        Path2D norShape = new Path2D.Double();
+        int w = getWidth() - 14;
+        int h = getHeight();
+        int bubbleDiameter = 14;
+
+        norShape.moveTo(0, 0);
+        norShape.curveTo(w / 3.0, 0, w - 10, 0, w, h / 2.0);
+        norShape.curveTo(w - 10, h, w / 3.0, h, 0, h);
+        norShape.curveTo(w / 5.0, h * 0.66, w / 5.0, h * 0.33, 0, 0);
+        g2d.fill(norShape);
+
+        // Bulle de négation
+        g2d.setColor(Color.WHITE);
+        g2d.fillOval(w, h / 2 - bubbleDiameter / 2, bubbleDiameter, bubbleDiameter);
+        g2d.setColor(Color.BLACK);
+        g2d.drawOval(w, h / 2 - bubbleDiameter / 2, bubbleDiameter, bubbleDiameter);
+
+        // Texte
+        g2d.drawString("NOR", 10, getHeight() / 2 + 5);
+
+        g2d.setTransform(oldTransform);
+        drawConnectionPoints(g2d);
+
+        if (isSelected) {
+            g2d.setColor(Color.BLUE);
+            g2d.drawRect(getX(), getY(), getWidth(), getHeight());
+        }
+    }
+}
@@ -87,10 +87,15 @@ public class NotGate extends MemoryComponent {
      */
     public void compute() {
 
-        outputs.get(0).getWire().setValue(QuadBool.neg(this.inputs.get(0).getValue()));
+        ecrireSortie(evaluer(getInputValues()));
 
     }
 
+    @Override
+    public QuadBool evaluer(QuadBool[] entrees) {
+        return QuadBool.fromCode(QuadBool.not(entrees[0].code()));
+    }
+
     @Override
     public void draw(Graphics g, boolean isSelected) {
         Graphics2D g2d = (Graphics2D) g;
@@ -2,14 +2,13 @@ package com.fightclub.logisim;
 import java.awt.*;
 import java.awt.geom.AffineTransform;
 import java.awt.geom.Path2D;
-import java.util.ArrayList;
 
 
 /**
  * Représente une porte logique OR dans un circuit mémoire.
- * Cette porte hérite de MemoryComponent et définit son apparence graphique.
+ * Cette porte hérite de LogicGate et définit son apparence graphique.
  */
-public class OrGate extends MemoryComponent {
+public class OrGate extends LogicGate {
 
     // --------------constructeur--------------//
 
@@ -26,72 +25,32 @@ public class OrGate extends MemoryComponent {
      * @author Riyad Derguini
      */
     public OrGate(int id, int x, int y, Wire f1, Wire f2) {
-        // Appel du constructeur parent avec un identifiant unique et une position
-        // centrée
-        super(id, x, y);
-        this.type = ComponentType.OR; // Type de la porte
-        initConnectionPoints();
+        this(id, x, y, 2);
     }
 
-    // --------------méthodes--------------//
-
     /**
-     * Initialise les points de connexion de la porte OR.
-     * Deux entrées et une sortie sont créées.
+     * Construit une porte OR à N entrées.
      * 
-     * @author Riyad Derguini
+     * @param id        identifiant unique de la porte
+     * @param x         position horizontale
+     * @param y         position verticale
+     * @param nbEntrees nombre d'entrées
      */
-    @Override
-    protected void initConnectionPoints() {
-        inputs = new ArrayList<>(2);
-        outputs = new ArrayList<>(1);
-        
-        int margin = 3;
-        int w = getWidth();
-        int h = getHeight();
-        
-        switch(getRotationAngle()) {
-            case 0: // →
-                inputs.add(new ConnectionPoint(this, getX() - margin, getY() + h/4, true));
-                inputs.add(new ConnectionPoint(this, getX() - margin, getY() + 3*h/4, true));
-                outputs.add(new ConnectionPoint(this, getX() + w + margin, getY() + h/2, false));
-                break;
-                
-            case 90: // ↑
-                inputs.add(new ConnectionPoint(this, getX() + w/4, getY() - margin, true));
-                inputs.add(new ConnectionPoint(this, getX() + 3*w/4, getY() - margin, true));
-                outputs.add(new ConnectionPoint(this, getX() + w/2, getY() + h + margin, false));
-                break;
-                
-            case 180: // ←
-                inputs.add(new ConnectionPoint(this, getX() + w + margin, getY() + h/4, true));
-                inputs.add(new ConnectionPoint(this, getX() + w + margin, getY() + 3*h/4, true));
-                outputs.add(new ConnectionPoint(this, getX() - margin, getY() + h/2, false));
-                break;
-                
-            case 270: // ↓
-                inputs.add(new ConnectionPoint(this, getX() + w/4, getY() + h + margin, true));
-                inputs.add(new ConnectionPoint(this, getX() + 3*w/4, getY() + h + margin, true));
-                outputs.add(new ConnectionPoint(this, getX() + w/2, getY() - margin, false));
-                break;
-        }
+    public OrGate(int id, int x, int y, int nbEntrees) {
+        super(id, x, y, ComponentType.OR, nbEntrees, 3);
     }
 
+    // --------------méthodes--------------//
+
     /**
-     * Retourne la valeur de sortie de la porte OR.
-     * Elle est calculée en effectuant l'opération logique OR sur les deux entrées.
-     * Elle utilise la méthode andz et neg de QuadBool pour effectuer l'opération en utilisant la loi de morgan, ensuite
-     * elle met à jour la valeur de sortie.
+     * Calcule la sortie de la porte OR, repliée sur toutes les entrées.
      * 
+     * @param entrees valeurs des entrées
      * @return valeur de sortie
-     * 
-     * @author Riyad Derguini
      */
     @Override
-    public void compute() {
-
-        outputs.get(0).getWire().setValue(QuadBool.neg(QuadBool.neg(inputs.get(0).getValue()).andz(QuadBool.neg(inputs.get(1).getValue()))));
-
+    public QuadBool evaluer(QuadBool[] entrees) {
+        return QuadBool.or(entrees);
     }
 
     @Override
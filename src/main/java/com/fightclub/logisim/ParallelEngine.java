@@ -0,0 +1,115 @@
+package com.fightclub.logisim;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Moteur de simulation multi-cœur sur un {@link CompiledNetlist}.
+ * Les portes d'un même niveau topologique ne dépendent pas les unes des autres :
+ * chaque niveau est découpé en tranches évaluées par un {@link ForkJoinPool},
+ * et le niveau suivant ne démarre qu'une fois toutes les tranches terminées.
+ * Les niveaux plus petits que le seuil de parallélisme sont évalués sur le
+ * thread appelant, si bien que les petits circuits restent monothread.
+ * Un netlist contenant une boucle est simulé séquentiellement.
+ */
+public class ParallelEngine implements SimulationEngine {
+
+    /** Nombre minimal de portes d'un niveau pour le répartir entre plusieurs threads. */
+    public static final int SEUIL_PAR_DEFAUT = 8192;
+
+    private final ForkJoinPool pool;
+    private final int seuil;
+    private CompiledNetlist netlist;
+
+    /**
+     * Crée un moteur utilisant le pool commun et le seuil par défaut.
+     */
+    public ParallelEngine() {
+        this(ForkJoinPool.commonPool(), SEUIL_PAR_DEFAUT);
+    }
+
+    /**
+     * @param pool  pool de threads utilisé pour les niveaux larges
+     * @param seuil nombre minimal de portes d'un niveau pour le paralléliser
+     */
+    public ParallelEngine(ForkJoinPool pool, int seuil) {
+        this.pool = pool;
+        this.seuil = Math.max(1, seuil);
+    }
+
+    @Override
+    public void simuler(List<MemoryComponent> components, List<Wire> wires) throws CircuitInstableException {
+        if (netlist == null) {
+            netlist = CompiledNetlist.compiler(components, wires);
+        } else {
+            netlist.chargerEntrees();
+        }
+        simuler(netlist);
+        netlist.appliquer();
+    }
+
+    /**
+     * Simule un netlist compilé, niveau par niveau.
+     *
+     * @param netlist le netlist à simuler
+     * @throws CircuitInstableException si le netlist boucle et ne converge pas
+     */
+    public void simuler(CompiledNetlist netlist) throws CircuitInstableException {
+        if (!netlist.acyclique || netlist.getNombrePortes() < seuil) {
+            netlist.simuler();
+            return;
+        }
+
+        netlist.initialiser();
+        int[] debutNiveaux = netlist.debutNiveaux;
+        for (int k = 0; k + 1 < debutNiveaux.length; k++) {
+            int debut = debutNiveaux[k];
+            int fin = debutNiveaux[k + 1];
+            if (fin - debut < seuil) {
+                netlist.evaluerPlage(debut, fin);
+            } else {
+                int tranche = Math.max(seuil / 4, (fin - debut) / (pool.getParallelism() * 4));
+                pool.invoke(new Tranche(netlist, debut, fin, tranche)); // barrière entre niveaux
+            }
+        }
+    }
+
+    @Override
+    public void invalider() {
+        netlist = null;
+    }
+
+    @Override
+    public String toString() {
+        return "Parallèle";
+    }
+
+    /**
+     * Évaluation d'une plage de portes d'un niveau, découpée récursivement.
+     */
+    private static final class Tranche extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final CompiledNetlist netlist;
+        private final int debut;
+        private final int fin;
+        private final int taille;
+
+        Tranche(CompiledNetlist netlist, int debut, int fin, int taille) {
+            this.netlist = netlist;
+            this.debut = debut;
+            this.fin = fin;
+            this.taille = taille;
+        }
+
+        @Override
+        protected void compute() {
+            if (fin - debut <= taille) {
+                netlist.evaluerPlage(debut, fin);
+                return;
+            }
+            int milieu = (debut + fin) >>> 1;
+            invokeAll(new Tranche(netlist, debut, milieu, taille), new Tranche(netlist, milieu, fin, taille));
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.fightclub.logisim;
+import java.awt.*;
+import java.util.ArrayList;
+
+/**
+ * Tampon recopiant son entrée sur sa sortie, inséré par
+ * {@link SubcircuitDefinition#aplatir} sur une broche de sous-circuit dont
+ * le net intérieur et le net extérieur ne doivent pas être fusionnés (un net
+ * à plusieurs pilotes d'un côté ou de l'autre). Il n'apparaît jamais dans un
+ * circuit édité : le compilateur en fait une porte {@code OP_SUP} à une
+ * entrée, sans composant associé et donc sans délai.
+ */
+final class PinBuffer extends MemoryComponent {
+
+    PinBuffer(int id) {
+        super(id, 0, 0);
+        initConnectionPoints();
+    }
+
+    @Override
+    protected void initConnectionPoints() {
+        inputs = new ArrayList<>(1);
+        outputs = new ArrayList<>(1);
+        inputs.add(new ConnectionPoint(this, getX(), getY(), true));
+        outputs.add(new ConnectionPoint(this, getX() + getWidth(), getY(), false));
+    }
+
+    @Override
+    public QuadBool evaluer(QuadBool[] entrees) {
+        return entrees[0];
+    }
+
+    @Override
+    public void compute() {
+        ecrireSortie(evaluer(getInputValues()));
+    }
+
+    @Override
+    public void draw(Graphics g, boolean isSelected) {
+        // Jamais affiché
+    }
+}
@@ -10,6 +10,50 @@ public enum QuadBool {
     TRUE, // Vrai classique
     ERR; // Erreur ou contradiction
 
+    // -------------- CODAGE SUR 2 BITS --------------//
+    // Le code d'une valeur est son ordinal : bit 0 = « peut être faux »,
+    // bit 1 = « peut être vrai ». NOTHING = 00, FALSE = 01, TRUE = 10, ERR = 11.
+    // Le supremum est alors un simple OU bit à bit.
+
+    public static final int CODE_NOTHING = 0;
+    public static final int CODE_FALSE = 1;
+    public static final int CODE_TRUE = 2;
+    public static final int CODE_ERR = 3;
+
+    private static final QuadBool[] PAR_CODE = values();
+
+    // Tables 4x4 indexées par (a << 2) | b, et table 4 entrées pour neg
+    private static final byte[] ANDZ = new byte[16];
+    private static final byte[] NEG = new byte[4];
+
+    // Tables combinées par type de porte, indexées par (a << 2) | b
+    private static final byte[] AND = new byte[16];
+    private static final byte[] OR = new byte[16];
+    private static final byte[] NAND = new byte[16];
+    private static final byte[] XOR = new byte[16];
+    private static final byte[] NOR = new byte[16];
+    private static final byte[] XNOR = new byte[16];
+    private static final byte[] NOT = new byte[16]; // ne dépend que de a
+    private static final byte[] SUP = new byte[16];
+
+    static {
+        for (QuadBool a : PAR_CODE) {
+            NEG[a.code()] = (byte) neg(a).code();
+            for (QuadBool b : PAR_CODE) {
+                int i = a.code() << 2 | b.code();
+                ANDZ[i] = (byte) a.andz(b).code();
+                AND[i] = (byte) a.andz(b).code();
+                OR[i] = (byte) neg(neg(a).andz(neg(b))).code();
+                NAND[i] = (byte) neg(a.andz(b)).code();
+                XOR[i] = (byte) a.andz(neg(b)).sup(b.andz(neg(a))).code();
+                NOR[i] = (byte) neg(fromCode(OR[i])).code();
+                XNOR[i] = (byte) neg(fromCode(XOR[i])).code();
+                NOT[i] = (byte) neg(a).code();
+                SUP[i] = (byte) a.sup(b).code();
+            }
+        }
+    }
+
     /**
      * Opération supremum combinant deux valeurs avec propagation d'incertitude.
      * 
@@ -89,6 +133,144 @@ public enum QuadBool {
         }
     }
 
+    /**
+     * @return le code sur 2 bits de cette valeur
+     */
+    public int code() {
+        return ordinal();
+    }
+
+    /**
+     * @param code code sur 2 bits
+     * @return la valeur QuadBool correspondante
+     */
+    public static QuadBool fromCode(int code) {
+        return PAR_CODE[code];
+    }
+
+    // -------------- API SUR LES CODES --------------//
+    // Versions de sup, andz et neg (et des portes) opérant directement sur les
+    // codes, pour les boucles de simulation qui ne manipulent pas d'objets.
+
+    public static int sup(int a, int b) {
+        return a | b;
+    }
+
+    public static int andz(int a, int b) {
+        return ANDZ[a << 2 | b];
+    }
+
+    public static int neg(int a) {
+        return NEG[a];
+    }
+
+    public static int and(int a, int b) {
+        return AND[a << 2 | b];
+    }
+
+    public static int or(int a, int b) {
+        return OR[a << 2 | b];
+    }
+
+    public static int nand(int a, int b) {
+        return NAND[a << 2 | b];
+    }
+
+    public static int xor(int a, int b) {
+        return XOR[a << 2 | b];
+    }
+
+    public static int nor(int a, int b) {
+        return NOR[a << 2 | b];
+    }
+
+    public static int xnor(int a, int b) {
+        return XNOR[a << 2 | b];
+    }
+
+    public static int not(int a) {
+        return NEG[a];
+    }
+
+    // -------------- PORTES À N ENTRÉES --------------//
+    // Repli à gauche de la porte à deux entrées : f(f(f(v0, v1), v2), ...).
+    // Pour AND, c'est andz appliqué de gauche à droite, avec sa priorité gauche
+    // à chaque étape ; NAND, NOR et XNOR nient le repli de AND, OR et XOR.
+
+    public static QuadBool and(QuadBool[] valeurs) {
+        return PAR_CODE[replier(AND, valeurs)];
+    }
+
+    public static QuadBool or(QuadBool[] valeurs) {
+        return PAR_CODE[replier(OR, valeurs)];
+    }
+
+    public static QuadBool xor(QuadBool[] valeurs) {
+        return PAR_CODE[replier(XOR, valeurs)];
+    }
+
+    public static QuadBool nand(QuadBool[] valeurs) {
+        return PAR_CODE[NEG[replier(AND, valeurs)]];
+    }
+
+    public static QuadBool nor(QuadBool[] valeurs) {
+        return PAR_CODE[NEG[replier(OR, valeurs)]];
+    }
+
+    public static QuadBool xnor(QuadBool[] valeurs) {
+        return PAR_CODE[NEG[replier(XOR, valeurs)]];
+    }
+
+    /**
+     * @param table   table d'une porte à deux entrées, indexée par (a << 2) | b
+     * @param valeurs au moins deux valeurs
+     * @return le code du repli à gauche de la table sur les valeurs
+     */
+    private static int replier(byte[] table, QuadBool[] valeurs) {
+        int resultat = valeurs[0].code();
+        for (int i = 1; i < valeurs.length; i++) {
+            resultat = table[resultat << 2 | valeurs[i].code()];
+        }
+        return resultat;
+    }
+
+    /**
+     * Retourne une copie de la table combinée d'un type de porte, indexée par
+     * {@code (a << 2) | b}. Pour la porte NON, seule l'entrée a compte.
+     * 
+     * @param type type de porte (AND, OR, NAND, NOR, XOR, XNOR ou NOT)
+     * @return la table de 16 codes de sortie
+     * @throws IllegalArgumentException si le type n'est pas une porte
+     */
+    public static byte[] table(ComponentType type) {
+        switch (type) {
+            case AND:
+                return AND.clone();
+            case OR:
+                return OR.clone();
+            case NAND:
+                return NAND.clone();
+            case NOR:
+                return NOR.clone();
+            case XOR:
+                return XOR.clone();
+            case XNOR:
+                return XNOR.clone();
+            case NOT:
+                return NOT.clone();
+            default:
+                throw new IllegalArgumentException("Pas de table pour " + type);
+        }
+    }
+
+    /**
+     * @return une copie de la table du supremum, indexée par {@code (a << 2) | b},
+     *         qui résout un net piloté par plusieurs sorties
+     */
+    public static byte[] tableSup() {
+        return SUP.clone();
+    }
+
     /**
      * Convertit un booléen classique en QuadBool.
      * 
@@ -0,0 +1,208 @@
+package com.fightclub.logisim;
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Registre de N bascules D déclenchées sur front montant. Les entrées sont
+ * D0 .. D(N-1) puis l'horloge, les sorties Q0 .. Q(N-1).
+ *
+ * Les sorties ne dépendent que de l'état mémorisé, jamais des entrées : pour
+ * les moteurs de simulation, un registre est une source, au même titre
+ * qu'une constante, et une boucle passant par un registre n'est pas une
+ * boucle combinatoire. L'état n'évolue qu'entre deux stabilisations, en deux
+ * temps (voir {@link Simulator#simuler()}) : tous les registres
+ * échantillonnent d'abord leurs entrées ({@link #echantillonner()}), puis
+ * tous mémorisent la valeur échantillonnée ({@link #memoriser()}). Un
+ * registre ne voit donc jamais la nouvelle valeur d'un autre registre
+ * mis à jour au même front.
+ */
+public class Register extends MemoryComponent {
+
+    // -------------- ATTRIBUTS --------------//
+
+    public static final int MIN_BITS = 1;
+    public static final int MAX_BITS = 32;
+    private static final int ESPACEMENT = 20; // distance entre deux broches
+    private static final int MARGE = 5;
+
+    private final int nbBits;
+    private QuadBool[] etat; // valeur des sorties
+    private QuadBool[] suivant; // valeur échantillonnée, mémorisée au prochain appel de memoriser()
+    private QuadBool horloge = QuadBool.NOTHING; // horloge lue au dernier échantillonnage
+
+    // -------------- CONSTRUCTEUR --------------//
+
+    /**
+     * Construit un registre dont tous les bits valent FALSE.
+     *
+     * @param id     identifiant unique du composant
+     * @param x      position horizontale
+     * @param y      position verticale
+     * @param nbBits nombre de bits, entre {@link #MIN_BITS} et {@link #MAX_BITS}
+     * @throws IllegalArgumentException si le nombre de bits est hors limites
+     */
+    public Register(int id, int x, int y, int nbBits) {
+        this(id, x, y, nbBits, ComponentType.REGISTER);
+    }
+
+    protected Register(int id, int x, int y, int nbBits, ComponentType type) {
+        super(id, x, y);
+        if (nbBits < MIN_BITS || nbBits > MAX_BITS) {
+            throw new IllegalArgumentException("Nombre de bits invalide : " + nbBits);
+        }
+        this.type = type;
+        this.nbBits = nbBits;
+        this.etat = new QuadBool[nbBits];
+        this.suivant = new QuadBool[nbBits];
+        Arrays.fill(etat, QuadBool.FALSE);
+        Arrays.fill(suivant, QuadBool.FALSE);
+        initConnectionPoints();
+    }
+
+    // -------------- MÉTHODES --------------//
+
+    /**
+     * @return le nombre de bits du registre
+     */
+    public int getNombreBits() {
+        return nbBits;
+    }
+
+    /**
+     * @param i indice du bit
+     * @return la valeur mémorisée du bit i
+     */
+    public QuadBool getEtat(int i) {
+        return etat[i];
+    }
+
+    /**
+     * Lit les entrées sur les fils : si l'horloge est passée de FALSE à TRUE
+     * depuis l'échantillonnage précédent, les entrées D deviennent la valeur
+     * suivante ; sinon la valeur suivante est l'état actuel. L'état lui-même
+     * n'est pas modifié.
+     */
+    public void echantillonner() {
+        QuadBool[] entrees = getInputValues();
+        QuadBool nouvelleHorloge = entrees[nbBits];
+        if (horloge == QuadBool.FALSE && nouvelleHorloge == QuadBool.TRUE) {
+            System.arraycopy(entrees, 0, suivant, 0, nbBits);
+        } else {
+            System.arraycopy(etat, 0, suivant, 0, nbBits);
+        }
+        horloge = nouvelleHorloge;
+    }
+
+    /**
+     * Mémorise la valeur échantillonnée en échangeant les deux tampons.
+     *
+     * @return true si au moins un bit a changé
+     */
+    public boolean memoriser() {
+        boolean change = !Arrays.equals(etat, suivant);
+        QuadBool[] ancien = etat;
+        etat = suivant;
+        suivant = ancien;
+        return change;
+    }
+
+    @Override
+    protected int getHeight() {
+        return Math.max(super.getHeight(), ESPACEMENT * (nbBits + 2));
+    }
+
+    /**
+     * Initialise les points de connexion : les entrées D puis l'horloge sur
+     * le côté d'entrée, les sorties Q sur le côté opposé.
+     */
+    @Override
+    protected void initConnectionPoints() {
+        int nbEntrees = nbBits + 1;
+        inputs = new ArrayList<>(nbEntrees);
+        outputs = new ArrayList<>(nbBits);
+
+        int w = getWidth();
+        int h = getHeight();
+
+        for (int i = 1; i <= nbEntrees; i++) {
+            switch (getRotationAngle()) {
+                case 0 -> inputs.add(new ConnectionPoint(this, getX() - MARGE, getY() + i * h / (nbEntrees + 1), true));
+                case 90 -> inputs.add(new ConnectionPoint(this, getX() + i * w / (nbEntrees + 1), getY() - MARGE, true));
+                case 180 -> inputs.add(new ConnectionPoint(this, getX() + w + MARGE, getY() + i * h / (nbEntrees + 1), true));
+                case 270 -> inputs.add(new ConnectionPoint(this, getX() + i * w / (nbEntrees + 1), getY() + h + MARGE, true));
+            }
+        }
+        for (int j = 1; j <= nbBits; j++) {
+            switch (getRotationAngle()) {
+                case 0 -> outputs.add(new ConnectionPoint(this, getX() + w + MARGE, getY() + j * h / (nbBits + 1), false));
+                case 90 -> outputs.add(new ConnectionPoint(this, getX() + j * w / (nbBits + 1), getY() + h + MARGE, false));
+                case 180 -> outputs.add(new ConnectionPoint(this, getX() - MARGE, getY() + j * h / (nbBits + 1), false));
+                case 270 -> outputs.add(new ConnectionPoint(this, getX() + j * w / (nbBits + 1), getY() - MARGE, false));
+            }
+        }
+    }
+
+    /**
+     * @return la valeur mémorisée de tous les bits, quelles que soient les entrées
+     */
+    @Override
+    public QuadBool[] evaluerSorties(QuadBool[] entrees) {
+        return etat.clone();
+    }
+
+    /**
+     * @return la valeur mémorisée du premier bit
+     */
+    @Override
+    public QuadBool evaluer(QuadBool[] entrees) {
+        return etat[0];
+    }
+
+    @Override
+    public void compute() {
+        for (int j = 0; j < nbBits; j++) {
+            for (Wire fil : outputs.get(j).getWires()) {
+                fil.setValue(etat[j]);
+            }
+        }
+    }
+
+    @Override
+    public void draw(Graphics g, boolean isSelected) {
+        Graphics2D g2d = (Graphics2D) g;
+        AffineTransform oldTransform = g2d.getTransform();
+
+        g2d.translate(getX() + getWidth() / 2, getY() + getHeight() / 2);
+        g2d.rotate(Math.toRadians(getRotationAngle()));
+        g2d.translate(-getWidth() / 2, -getHeight() / 2);
+
+        // Boîte du registre
+        g2d.setColor(new Color(235, 220, 200));
+        g2d.fillRect(0, 0, getWidth(), getHeight());
+        g2d.setColor(Color.BLACK);
+        g2d.drawRect(0, 0, getWidth(), getHeight());
+
+        // Triangle de l'entrée d'horloge
+        int yHorloge = (nbBits + 1) * getHeight() / (nbBits + 2);
+        g2d.drawPolyline(new int[] { 0, 8, 0 }, new int[] { yHorloge - 5, yHorloge, yHorloge + 5 }, 3);
+
+        Wire.drawString(g2d, getLibelle(), 0, 0, getWidth(), getHeight());
+
+        g2d.setTransform(oldTransform);
+        drawConnectionPoints(g2d);
+
+        if (isSelected) {
+            g2d.setColor(Color.BLUE);
+            g2d.drawRect(getX(), getY(), getWidth(), getHeight());
+        }
+    }
+
+    /**
+     * @return le texte affiché dans la boîte
+     */
+    protected String getLibelle() {
+        return "REG " + nbBits;
+    }
+}
@@ -0,0 +1,256 @@
+package com.fightclub.logisim;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Mesures de performance des moteurs de simulation sur un grand circuit
+ * généré aléatoirement.
+ *
+ * Usage : java com.fightclub.logisim.SimulationBenchmark [largeur] [profondeur]
+ */
+public class SimulationBenchmark {
+
+    private static final int REPETITIONS = 20;
+    private static final int LARGEUR_BYTECODE = 500;
+    private static final int ECHAUFFEMENT_BYTECODE = 20000;
+    private static final int VERIFICATIONS_TEMPORELLES = 50;
+    private static final int BLOCS_CHRONOGRAMME = 50;
+    private static final int PAS_PAR_BLOC = 200;
+    private static final int PROFONDEUR_VERIFICATION = 3; // au-delà, les valeurs aléatoires saturent à ERR
+
+    private final List<MemoryComponent> components = new ArrayList<>();
+    private final List<Wire> wires = new ArrayList<>();
+
+    public static void main(String[] args) throws CircuitInstableException {
+        int largeur = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+        int profondeur = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+
+        SimulationBenchmark circuit = genererCircuit(largeur, profondeur, 42);
+        CompiledNetlist netlist = CompiledNetlist.compiler(circuit.components, circuit.wires);
+        System.out.printf("Circuit : %d portes, %d niveaux, %d cœurs%n",
+                netlist.getNombrePortes(), netlist.getNombreNiveaux(), Runtime.getRuntime().availableProcessors());
+
+        double sequentiel = mesurer("Séquentiel (compilé)", netlist::simuler);
+        ParallelEngine parallele = new ParallelEngine(ForkJoinPool.commonPool(), 1024);
+        double fourche = mesurer("Parallèle (fork/join)", () -> parallele.simuler(netlist));
+        System.out.printf("Accélération parallèle : x%.2f%n", sequentiel / fourche);
+
+        // Optimisation, entrées libres : seules les simplifications valables pour tout vecteur
+        NetlistOptimizer optimiseur = new NetlistOptimizer(netlist);
+        CompiledNetlist optimise = optimiseur.optimiser();
+        System.out.printf("Optimisation : %d portes supprimées (%d constantes, %d remplacées, %d fusionnées, %d mortes)%n",
+                optimiseur.getPortesSupprimees(), optimiseur.getPortesConstantes(), optimiseur.getPortesRemplacees(),
+                optimiseur.getPortesFusionnees(), optimiseur.getPortesMortes());
+        double reduit = mesurer("Séquentiel (optimisé)", optimise::simuler);
+        System.out.printf("Accélération optimisation : x%.2f%n", sequentiel / reduit);
+
+        // Bytecode généré, sur un circuit de taille moyenne : chaque méthode générée n'est
+        // appelée qu'une fois par simulation, il faut un long échauffement pour que le JIT la compile
+        SimulationBenchmark moyen = genererCircuit(Math.min(largeur, LARGEUR_BYTECODE), profondeur, 42);
+        CompiledNetlist netlistMoyen = CompiledNetlist.compiler(moyen.components, moyen.wires);
+        BytecodeSimulator bytecode = BytecodeSimulator.compiler(netlistMoyen);
+        for (int i = 0; i < ECHAUFFEMENT_BYTECODE; i++) {
+            bytecode.simuler();
+            netlistMoyen.simuler();
+        }
+        System.out.printf("Circuit moyen : %d portes%n", netlistMoyen.getNombrePortes());
+        LevelizedEngine interprete = new LevelizedEngine();
+        double objets = mesurer("Interprété (objets)", () -> interprete.simuler(moyen.components, moyen.wires));
+        double tableaux = mesurer("Compilé (tableaux)", netlistMoyen::simuler);
+        double genere = mesurer("Bytecode généré", bytecode::simuler);
+        System.out.printf("Accélération bytecode : x%.2f sur les objets, x%.2f sur les tableaux%n",
+                objets / genere, tableaux / genere);
+
+        TimingSimulator temporel = new TimingSimulator(netlist);
+        double evenementiel = mesurer("Temporel (événements)", temporel::initialiser);
+        System.out.printf("Événements temporels : %d par simulation, %.0f par seconde%n",
+                temporel.getNombreEvenements(), temporel.getNombreEvenements() / evenementiel * 1000);
+        verifierTemporel();
+
+        mesurerChronogramme(circuit, netlist.getConstante(0));
+    }
+
+    /**
+     * Mesure le coût de l'enregistrement du chronogramme sur des pas de
+     * simulation incrémentale, une constante étant basculée à chaque pas. Un
+     * pas ne dure que quelques microsecondes : les deux variantes sont
+     * alternées par blocs de {@value #PAS_PAR_BLOC} pas, pour que la
+     * compilation JIT et le ramasse-miettes pèsent autant sur l'une que sur
+     * l'autre, et les premiers blocs servent d'échauffement.
+     *
+     * @param entree constante basculée à chaque pas
+     */
+    private static void mesurerChronogramme(SimulationBenchmark circuit, ConstantComponent entree)
+            throws CircuitInstableException {
+        CompiledEngine engine = new CompiledEngine();
+        engine.simuler(circuit.components, circuit.wires);
+        WaveformRecorder enregistreur = new WaveformRecorder(circuit.wires);
+        enregistreur.detacher();
+        long pas = 0;
+        long sans = 0;
+        long avec = 0;
+        for (int bloc = 0; bloc < BLOCS_CHRONOGRAMME; bloc++) {
+            long debut = System.nanoTime();
+            for (int i = 0; i < PAS_PAR_BLOC; i++) {
+                entree.basculer();
+                engine.simuler(circuit.components, circuit.wires);
+            }
+            long milieu = System.nanoTime();
+
+            // Hors mesure : rattrape les changements du bloc sans enregistrement
+            enregistreur.attacher();
+            enregistreur.enregistrer(pas++);
+            long reprise = System.nanoTime();
+            for (int i = 0; i < PAS_PAR_BLOC; i++) {
+                entree.basculer();
+                engine.simuler(circuit.components, circuit.wires);
+                enregistreur.enregistrer(pas++);
+            }
+            long fin = System.nanoTime();
+            enregistreur.detacher();
+
+            if (bloc >= BLOCS_CHRONOGRAMME / 5) {
+                sans += milieu - debut;
+                avec += fin - reprise;
+            }
+        }
+        int nbPas = (BLOCS_CHRONOGRAMME - BLOCS_CHRONOGRAMME / 5) * PAS_PAR_BLOC;
+        System.out.printf("%-28s %10.3f ms%n", "Pas de simulation", sans / 1e6 / nbPas);
+        System.out.printf("%-28s %10.3f ms%n", "Pas + chronogramme", avec / 1e6 / nbPas);
+        System.out.printf("Surcoût du chronogramme : %.1f %%%n", (avec - sans) * 100.0 / sans);
+    }
+
+    /**
+     * Génère un circuit en couches : des constantes, puis {@code profondeur}
+     * couches de {@code largeur} portes dont les entrées viennent de la couche
+     * précédente, et une LED par porte de la dernière couche (au plus 64).
+     *
+     * @param largeur    nombre de portes par couche
+     * @param profondeur nombre de couches
+     * @param graine     graine du générateur aléatoire
+     * @return le circuit généré
+     */
+    static SimulationBenchmark genererCircuit(int largeur, int profondeur, long graine) {
+        return genererCircuit(largeur, profondeur, graine, 2);
+    }
+
+    /**
+     * Comme {@link #genererCircuit(int, int, long)}, avec des portes AND, OR,
+     * XOR et NAND de 2 à {@code maxEntrees} entrées.
+     *
+     * @param maxEntrees nombre maximal d'entrées d'une porte
+     * @return le circuit généré
+     */
+    static SimulationBenchmark genererCircuit(int largeur, int profondeur, long graine, int maxEntrees) {
+        SimulationBenchmark circuit = new SimulationBenchmark();
+        Random random = new Random(graine);
+        int id = 1;
+
+        List<MemoryComponent> couche = new ArrayList<>();
+        for (int i = 0; i < Math.min(largeur, 64); i++) {
+            couche.add(new ConstantComponent(id++, QuadBool.fromBoolean(random.nextBoolean()), 0, 0));
+        }
+        circuit.components.addAll(couche);
+
+        for (int k = 0; k < profondeur; k++) {
+            List<MemoryComponent> suivante = new ArrayList<>(largeur);
+            for (int i = 0; i < largeur; i++) {
+                MemoryComponent porte;
+                int nbEntrees = maxEntrees > 2 ? 2 + random.nextInt(maxEntrees - 1) : 2;
+                switch (random.nextInt(5)) {
+                    case 0 -> porte = new AndGate(id++, 0, 0, nbEntrees);
+                    case 1 -> porte = new OrGate(id++, 0, 0, nbEntrees);
+                    case 2 -> porte = new XorGate(id++, 0, 0, nbEntrees);
+                    case 3 -> porte = new NandGate(id++, 0, 0, nbEntrees);
+                    default -> porte = new NotGate(id++, 0, 0, null);
+                }
+                for (ConnectionPoint entree : porte.getInputs()) {
+                    circuit.relier(couche.get(random.nextInt(couche.size())), entree);
+                }
+                suivante.add(porte);
+            }
+            circuit.components.addAll(suivante);
+            couche = suivante;
+        }
+
+        for (int i = 0; i < Math.min(couche.size(), 64); i++) {
+            LedLight led = new LedLight(id++, 0, 0);
+            circuit.relier(couche.get(i), led.getInputs().get(0));
+            circuit.components.add(led);
+        }
+        return circuit;
+    }
+
+    /**
+     * Vérifie, sur des circuits acycliques à portes de N entrées, que le
+     * simulateur temporel stabilise chaque LED à la valeur calculée par
+     * {@link CompiledNetlist#simuler()} : les délais ne changent que l'instant
+     * de stabilisation, pas l'état final.
+     *
+     * @throws IllegalStateException si une LED diffère
+     */
+    static void verifierTemporel() throws CircuitInstableException {
+        for (long graine = 0; graine < VERIFICATIONS_TEMPORELLES; graine++) {
+            SimulationBenchmark circuit = genererCircuit(200, PROFONDEUR_VERIFICATION, graine, LogicGate.MAX_ENTREES);
+            CompiledNetlist netlist = CompiledNetlist.compiler(circuit.components, circuit.wires);
+            netlist.simuler();
+            TimingSimulator temporel = new TimingSimulator(netlist);
+            temporel.initialiser();
+            for (int o = 0; o < netlist.getNombreSorties(); o++) {
+                if (temporel.getSortie(o) != netlist.getSortie(o)) {
+                    throw new IllegalStateException("Simulation temporelle divergente (graine " + graine + ", LED " + o
+                            + ") : " + temporel.getSortie(o) + " au lieu de " + netlist.getSortie(o));
+                }
+            }
+        }
+        System.out.printf("Vérification temporelle : %d circuits identiques au noyau compilé%n", VERIFICATIONS_TEMPORELLES);
+    }
+
+    /**
+     * Relie la sortie d'un composant à un point d'entrée.
+     */
+    private void relier(MemoryComponent source, ConnectionPoint entree) {
+        ConnectionPoint sortie = source.getOutputs().get(0);
+        Wire fil = new Wire(sortie, entree);
+        sortie.connectWire(fil);
+        entree.connectWire(fil);
+        wires.add(fil);
+    }
+
+    public List<MemoryComponent> getComponents() {
+        return components;
+    }
+
+    public List<Wire> getWires() {
+        return wires;
+    }
+
+    /**
+     * Action simulée, mesurée par {@link #mesurer}.
+     */
+    @FunctionalInterface
+    interface Simulation {
+        void executer() throws CircuitInstableException;
+    }
+
+    /**
+     * Exécute une simulation plusieurs fois (après un échauffement) et affiche
+     * le temps moyen.
+     *
+     * @return le temps moyen en millisecondes
+     */
+    static double mesurer(String nom, Simulation simulation) throws CircuitInstableException {
+        for (int i = 0; i < REPETITIONS; i++) {
+            simulation.executer(); // échauffement du JIT
+        }
+        long debut = System.nanoTime();
+        for (int i = 0; i < REPETITIONS; i++) {
+            simulation.executer();
+        }
+        double ms = (System.nanoTime() - debut) / 1e6 / REPETITIONS;
+        System.out.printf("%-28s %10.3f ms%n", nom, ms);
+        return ms;
+    }
+}
@@ -0,0 +1,200 @@
+package com.fightclub.logisim;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+import javax.swing.SwingUtilities;
+
+/**
+ * Horloge de simulation : à chaque tic, le circuit est simulé sur un thread
+ * dédié, jamais sur l'Event Dispatch Thread.
+ *
+ * Le rafraîchissement de l'affichage est regroupé : tant qu'une mise à jour
+ * est en attente sur l'EDT, les tics suivants n'en demandent pas de nouvelle.
+ * En vitesse maximale, l'interface n'est donc redessinée qu'aussi vite qu'elle
+ * le peut, quel que soit le nombre de tics.
+ */
+public class SimulationClock {
+
+    /** Vitesses proposées, de la plus lente à la plus rapide. */
+    public static final String[] VITESSES = { "1x", "2x", "5x", "Max" };
+
+    /** Période d'un tic en vitesse 1x. */
+    private static final long PERIODE_1X_MS = 1000;
+
+    // -------------- ATTRIBUTS --------------//
+
+    private final Circuit circuit;
+    private final ScheduledExecutorService executor;
+    private final AtomicLong cycles = new AtomicLong();
+    private final AtomicBoolean affichageEnAttente = new AtomicBoolean();
+
+    private ScheduledFuture<?> tache;
+    private long generation; // incrémentée à chaque arrêt : une boucle d'une génération passée s'arrête
+    private long periodeMs = PERIODE_1X_MS; // 0 : aussi vite que possible
+    private LongConsumer surAffichage = cycle -> { };
+    private Consumer<CircuitInstableException> surInstabilite = ex -> { };
+    private Consumer<RuntimeException> surErreur = ex -> { };
+
+    // -------------- CONSTRUCTEUR --------------//
+
+    /**
+     * @param circuit le circuit à simuler à chaque tic
+     */
+    public SimulationClock(Circuit circuit) {
+        this.circuit = circuit;
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "horloge-simulation");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // -------------- COMMANDES --------------//
+
+    /**
+     * Démarre les tics à la vitesse courante. Sans effet si l'horloge tourne déjà.
+     */
+    public synchronized void demarrer() {
+        if (tache != null) {
+            return;
+        }
+        if (periodeMs == 0) {
+            long demande = generation;
+            tache = executor.schedule(() -> boucler(demande), 0, TimeUnit.MILLISECONDS);
+        } else {
+            tache = executor.scheduleAtFixedRate(this::tic, 0, periodeMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Arrête les tics ; le tic en cours, s'il y en a un, se termine normalement.
+     */
+    public synchronized void arreter() {
+        generation++;
+        if (tache != null) {
+            tache.cancel(false);
+            tache = null;
+        }
+    }
+
+    public synchronized boolean isEnMarche() {
+        return tache != null;
+    }
+
+    /**
+     * Change la vitesse ; l'horloge est relancée si elle tournait.
+     *
+     * @param vitesse une des valeurs de {@link #VITESSES}
+     */
+    public synchronized void setVitesse(String vitesse) {
+        switch (vitesse) {
+            case "1x" -> periodeMs = PERIODE_1X_MS;
+            case "2x" -> periodeMs = PERIODE_1X_MS / 2;
+            case "5x" -> periodeMs = PERIODE_1X_MS / 5;
+            case "Max" -> periodeMs = 0;
+            default -> throw new IllegalArgumentException("Vitesse inconnue : " + vitesse);
+        }
+        if (tache != null) {
+            arreter();
+            demarrer();
+        }
+    }
+
+    /**
+     * Remet le compteur de cycles à zéro.
+     */
+    public void remettreAZero() {
+        cycles.set(0);
+        demanderAffichage();
+    }
+
+    public long getCycles() {
+        return cycles.get();
+    }
+
+    /**
+     * @param surAffichage appelé sur l'EDT avec le nombre de cycles, après chaque
+     *                     rafraîchissement regroupé
+     */
+    public void setSurAffichage(LongConsumer surAffichage) {
+        this.surAffichage = surAffichage;
+    }
+
+    /**
+     * @param surInstabilite appelé sur l'EDT si un tic ne converge pas ; l'horloge
+     *                       est alors déjà arrêtée
+     */
+    public void setSurInstabilite(Consumer<CircuitInstableException> surInstabilite) {
+        this.surInstabilite = surInstabilite;
+    }
+
+    /**
+     * @param surErreur appelé sur l'EDT si un tic échoue pour une autre raison
+     *                  (erreur de compilation du circuit, d'un sous-circuit...) ;
+     *                  l'horloge est alors déjà arrêtée
+     */
+    public void setSurErreur(Consumer<RuntimeException> surErreur) {
+        this.surErreur = surErreur;
+    }
+
+    // -------------- TICS --------------//
+
+    /**
+     * Vitesse maximale : enchaîne les tics jusqu'à l'arrêt. Un changement de
+     * vitesse arrête puis relance l'horloge : la boucle se termine dès que sa
+     * génération n'est plus la génération courante.
+     *
+     * @param demande génération de l'horloge au lancement de la boucle
+     */
+    private void boucler(long demande) {
+        while (!Thread.currentThread().isInterrupted() && tic()) {
+            synchronized (this) {
+                if (generation != demande) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Simule un pas d'horloge (voir {@link Circuit#simulerCycle()}) et demande
+     * un rafraîchissement.
+     *
+     * @return false si le circuit est instable ou si la simulation a échoué
+     */
+    private boolean tic() {
+        try {
+            circuit.simulerCycle();
+        } catch (CircuitInstableException ex) {
+            arreter();
+            SwingUtilities.invokeLater(() -> surInstabilite.accept(ex));
+            return false;
+        } catch (RuntimeException ex) {
+            // Sans cela, l'exception annulerait la tâche périodique en silence
+            arreter();
+            SwingUtilities.invokeLater(() -> surErreur.accept(ex));
+            return false;
+        }
+        cycles.incrementAndGet();
+        demanderAffichage();
+        return true;
+    }
+
+    /**
+     * Planifie un rafraîchissement sur l'EDT, sauf s'il y en a déjà un en attente.
+     */
+    private void demanderAffichage() {
+        if (affichageEnAttente.compareAndSet(false, true)) {
+            SwingUtilities.invokeLater(() -> {
+                affichageEnAttente.set(false);
+                circuit.repaint();
+                surAffichage.accept(cycles.get());
+            });
+        }
+    }
+}
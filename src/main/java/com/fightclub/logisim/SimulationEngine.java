@@ -0,0 +1,45 @@
+package com.fightclub.logisim;
+import java.util.List;
+
+/**
+ * Stratégie de simulation d'un circuit.
+ * Un moteur calcule la valeur de chaque fil jusqu'à atteindre un état stable,
+ * ou lève une {@link CircuitInstableException} si le circuit ne converge pas.
+ */
+public interface SimulationEngine {
+
+    /**
+     * Simule le circuit formé par les composants et les fils donnés.
+     * 
+     * @param components Composants du circuit
+     * @param wires      Fils du circuit, dont les valeurs sont mises à jour
+     * @throws CircuitInstableException si la simulation ne converge pas
+     */
+    void simuler(List<MemoryComponent> components, List<Wire> wires) throws CircuitInstableException;
+
+    /**
+     * Simule le circuit en signalant l'avancement. Par défaut, l'avancement
+     * n'est signalé qu'avant et après la simulation ; les moteurs itératifs le
+     * signalent à chaque itération.
+     *
+     * @param components Composants du circuit
+     * @param wires      Fils du circuit, dont les valeurs sont mises à jour
+     * @param progress   suivi de la simulation, qui peut l'annuler
+     * @throws CircuitInstableException si la simulation ne converge pas
+     * @throws java.util.concurrent.CancellationException si le suivi annule la simulation
+     */
+    default void simuler(List<MemoryComponent> components, List<Wire> wires, SimulationProgress progress)
+            throws CircuitInstableException {
+        progress.avancer(0, 1);
+        simuler(components, wires);
+        progress.avancer(1, 1);
+    }
+
+    /**
+     * Indique que la structure du circuit a changé (ajout ou suppression de
+     * composants ou de fils). Les moteurs qui précalculent une représentation
+     * du circuit doivent la reconstruire à la prochaine simulation.
+     */
+    default void invalider() {
+    }
+}
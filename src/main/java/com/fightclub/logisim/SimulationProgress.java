@@ -0,0 +1,36 @@
+package com.fightclub.logisim;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Suivi d'une simulation longue : le moteur signale chaque itération, et
+ * l'observateur peut interrompre la simulation en levant une
+ * {@link CancellationException}.
+ */
+@FunctionalInterface
+public interface SimulationProgress {
+
+    /** Suivi sans effet. */
+    SimulationProgress AUCUN = (iteration, maximum) -> { };
+
+    /**
+     * @param iteration nombre d'itérations effectuées
+     * @param maximum   nombre maximal d'itérations avant de déclarer le circuit instable
+     * @throws CancellationException si la simulation doit s'arrêter
+     */
+    void avancer(int iteration, int maximum);
+
+    /**
+     * Suivi qui annule la simulation quand le thread courant est interrompu.
+     *
+     * @param suivant suivi à prévenir de chaque itération
+     * @return le suivi interruptible
+     */
+    static SimulationProgress interruptible(SimulationProgress suivant) {
+        return (iteration, maximum) -> {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new CancellationException("Simulation annulée");
+            }
+            suivant.avancer(iteration, maximum);
+        };
+    }
+}
@@ -0,0 +1,45 @@
+package com.fightclub.logisim;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Valeurs des fils figées à la fin d'une simulation réussie.
+ *
+ * Un instantané est immuable : il est capturé sur le thread de simulation puis
+ * publié au panneau, qui le lit pendant le dessin sans jamais voir les valeurs
+ * intermédiaires d'une simulation en cours.
+ */
+public final class SimulationSnapshot {
+
+    /** Instantané initial : tous les fils valent NOTHING. */
+    public static final SimulationSnapshot VIDE = new SimulationSnapshot(new IdentityHashMap<>());
+
+    private final Map<Wire, QuadBool> valeurs;
+
+    private SimulationSnapshot(Map<Wire, QuadBool> valeurs) {
+        this.valeurs = valeurs;
+    }
+
+    /**
+     * Copie la valeur courante de chaque fil.
+     *
+     * @param wires fils du circuit
+     * @return l'instantané
+     */
+    public static SimulationSnapshot capturer(List<Wire> wires) {
+        Map<Wire, QuadBool> valeurs = new IdentityHashMap<>(wires.size());
+        for (Wire fil : wires) {
+            valeurs.put(fil, fil.getValue());
+        }
+        return new SimulationSnapshot(valeurs);
+    }
+
+    /**
+     * @param fil un fil du circuit
+     * @return sa valeur dans l'instantané, NOTHING s'il a été créé depuis
+     */
+    public QuadBool valeur(Wire fil) {
+        return fil == null ? QuadBool.NOTHING : valeurs.getOrDefault(fil, QuadBool.NOTHING);
+    }
+}
@@ -0,0 +1,141 @@
+package com.fightclub.logisim;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.swing.SwingUtilities;
+
+/**
+ * Exécute les simulations d'un circuit sur un thread dédié, hors de l'Event
+ * Dispatch Thread.
+ *
+ * Une nouvelle demande annule la simulation en cours. L'observateur est
+ * toujours prévenu sur l'EDT ; les notifications d'avancement sont
+ * regroupées pour ne pas saturer la file d'événements.
+ */
+public class SimulationWorker {
+
+    /** État de la dernière simulation demandée. */
+    public enum Etat {
+        EN_COURS,
+        STABLE,
+        INSTABLE,
+        ANNULE,
+        ERREUR
+    }
+
+    /**
+     * Reçoit, sur l'EDT, l'état et l'avancement des simulations.
+     */
+    public interface Observateur {
+        /**
+         * @param etat    nouvel état
+         * @param message détail de l'instabilité ou de l'erreur, null sinon
+         */
+        void etat(Etat etat, String message);
+
+        /**
+         * @param iteration nombre d'itérations effectuées
+         * @param maximum   nombre maximal d'itérations
+         */
+        default void progression(int iteration, int maximum) {
+        }
+    }
+
+    // -------------- ATTRIBUTS --------------//
+
+    private final Circuit circuit;
+    private final ExecutorService executor;
+    private final AtomicBoolean progressionEnAttente = new AtomicBoolean();
+    private volatile int iteration;
+    private volatile int maximum;
+    private volatile Observateur observateur = (etat, message) -> { };
+    private volatile long generation; // incrémentée à chaque demande ou annulation
+    private Future<?> tache;
+
+    // -------------- CONSTRUCTEUR --------------//
+
+    /**
+     * @param circuit le circuit à simuler
+     */
+    public SimulationWorker(Circuit circuit) {
+        this.circuit = circuit;
+        this.executor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "simulation");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // -------------- COMMANDES --------------//
+
+    /**
+     * Lance une simulation en arrière-plan, après avoir annulé la précédente.
+     * Sans effet si le circuit est en pause.
+     */
+    public synchronized void lancer() {
+        if (circuit.isPaused()) {
+            return;
+        }
+        annuler();
+        long demande = generation;
+        tache = executor.submit(() -> executer(demande));
+    }
+
+    /**
+     * Annule la simulation en cours ; l'affichage garde le dernier état stable.
+     */
+    public synchronized void annuler() {
+        generation++;
+        if (tache != null) {
+            tache.cancel(true);
+            tache = null;
+        }
+    }
+
+    public void setObservateur(Observateur observateur) {
+        this.observateur = observateur;
+    }
+
+    // -------------- EXÉCUTION --------------//
+
+    private void executer(long demande) {
+        notifier(Etat.EN_COURS, null);
+        // L'interruption peut être consommée ailleurs : la génération sert aussi de drapeau d'annulation
+        SimulationProgress progress = SimulationProgress.interruptible((iteration, maximum) -> {
+            if (generation != demande) {
+                throw new CancellationException("Simulation annulée");
+            }
+            avancer(iteration, maximum);
+        });
+        try {
+            circuit.simuler(progress);
+            notifier(Etat.STABLE, null);
+        } catch (CircuitInstableException ex) {
+            notifier(Etat.INSTABLE, ex.getMessage());
+        } catch (CancellationException ex) {
+            notifier(Etat.ANNULE, null);
+        } catch (RuntimeException ex) {
+            // Le Future n'est jamais consulté : sans cela, l'erreur serait perdue
+            notifier(Etat.ERREUR, ex.getMessage());
+        } finally {
+            circuit.repaint();
+        }
+    }
+
+    private void avancer(int iteration, int maximum) {
+        this.iteration = iteration;
+        this.maximum = maximum;
+        if (progressionEnAttente.compareAndSet(false, true)) {
+            SwingUtilities.invokeLater(() -> {
+                progressionEnAttente.set(false);
+                observateur.progression(this.iteration, this.maximum);
+            });
+        }
+    }
+
+    private void notifier(Etat etat, String message) {
+        SwingUtilities.invokeLater(() -> observateur.etat(etat, message));
+    }
+}
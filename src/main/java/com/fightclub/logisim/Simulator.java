@@ -0,0 +1,234 @@
+package com.fightclub.logisim;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Point d'entrée de la simulation d'un {@link Netlist}, sans interface
+ * graphique. Le simulateur délègue à un {@link SimulationEngine} et l'invalide
+ * automatiquement lorsque la structure du netlist a changé depuis la
+ * simulation précédente.
+ *
+ * La simulation est synchrone : le moteur stabilise la partie combinatoire,
+ * les {@link Register} étant des sources, puis les registres ayant vu un
+ * front montant d'horloge sont mis à jour tous ensemble (voir
+ * {@link Register#echantillonner()}). Une boucle passant par un registre est
+ * ainsi simulée en une passe par cycle, sans itération jusqu'au point fixe.
+ *
+ * <pre>
+ * Netlist netlist = Netlist.importFromFile(fichier);
+ * Simulator simulateur = new Simulator(netlist);
+ * simulateur.simuler();
+ * List&lt;QuadBool&gt; sorties = simulateur.lireSorties();
+ * </pre>
+ */
+public class Simulator {
+
+    private final Netlist netlist;
+    private SimulationEngine engine;
+    private int revision = -1; // révision du netlist connue du moteur
+    private volatile SimulationSnapshot instantane = SimulationSnapshot.VIDE;
+    private WaveformRecorder enregistreur; // null si aucun enregistrement
+    private long pas; // nombre de simulations enregistrées
+
+    /**
+     * Crée un simulateur utilisant le moteur compilé.
+     *
+     * @param netlist le circuit à simuler
+     */
+    public Simulator(Netlist netlist) {
+        this(netlist, new CompiledEngine());
+    }
+
+    /**
+     * @param netlist le circuit à simuler
+     * @param engine  le moteur de simulation
+     */
+    public Simulator(Netlist netlist, SimulationEngine engine) {
+        this.netlist = netlist;
+        this.engine = engine;
+    }
+
+    /**
+     * Simule le circuit jusqu'à un état stable.
+     *
+     * @throws CircuitInstableException si la simulation ne converge pas
+     */
+    public void simuler() throws CircuitInstableException {
+        simuler(SimulationProgress.AUCUN);
+    }
+
+    /**
+     * Simule le circuit jusqu'à un état stable, met à jour les registres dont
+     * l'horloge est montée, puis publie un instantané des valeurs des fils.
+     *
+     * @param progress suivi de la simulation, qui peut l'annuler
+     * @throws CircuitInstableException si la simulation ne converge pas
+     * @throws java.util.concurrent.CancellationException si le suivi annule la simulation
+     */
+    public void simuler(SimulationProgress progress) throws CircuitInstableException {
+        // Verrou du netlist : les éditions attendent la fin de la simulation
+        synchronized (netlist) {
+            stabiliser(progress);
+            mettreAJourRegistres(progress);
+            instantane = SimulationSnapshot.capturer(netlist.getWires());
+            if (enregistreur != null) {
+                enregistreur.enregistrer(pas++);
+            }
+        }
+    }
+
+    /**
+     * Simule un pas d'horloge : chaque {@link ClockComponent} est inversée,
+     * puis le circuit est simulé comme par {@link #simuler()}. Un pas est
+     * une demi-période ; les registres changent au pas où leur horloge monte.
+     *
+     * @throws CircuitInstableException si la simulation ne converge pas
+     */
+    public void simulerCycle() throws CircuitInstableException {
+        simulerCycle(SimulationProgress.AUCUN);
+    }
+
+    /**
+     * Comme {@link #simulerCycle()}, en signalant l'avancement.
+     *
+     * @param progress suivi de la simulation, qui peut l'annuler
+     * @throws CircuitInstableException si la simulation ne converge pas
+     */
+    public void simulerCycle(SimulationProgress progress) throws CircuitInstableException {
+        synchronized (netlist) {
+            for (ClockComponent horloge : netlist.getHorloges()) {
+                horloge.basculer();
+            }
+            simuler(progress);
+        }
+    }
+
+    /**
+     * Stabilise la partie combinatoire avec le moteur, invalidé au préalable
+     * si la structure du netlist a changé.
+     */
+    private void stabiliser(SimulationProgress progress) throws CircuitInstableException {
+        if (revision != netlist.getRevision()) {
+            engine.invalider();
+            revision = netlist.getRevision();
+        }
+        engine.simuler(netlist.getComponents(), netlist.getWires(), progress);
+    }
+
+    /**
+     * Met à jour les registres en deux temps : tous échantillonnent leurs
+     * entrées sur les fils stabilisés, puis tous mémorisent. Si un registre a
+     * changé, le circuit est restabilisé ; tant qu'un registre en cadence un
+     * autre (compteur asynchrone), les fronts ainsi produits sont traités de
+     * même. Un circuit synchrone ne demande qu'une restabilisation.
+     *
+     * @throws CircuitInstableException si les registres changent encore après
+     *                                  {@link Circuit#MAX_ITERATIONS} mises à jour
+     */
+    private void mettreAJourRegistres(SimulationProgress progress) throws CircuitInstableException {
+        List<Register> registres = netlist.getRegistres();
+        for (int i = 0; ; i++) {
+            for (Register registre : registres) {
+                registre.echantillonner();
+            }
+            boolean change = false;
+            for (Register registre : registres) {
+                change |= registre.memoriser();
+            }
+            if (!change) {
+                return;
+            }
+            if (i >= Circuit.MAX_ITERATIONS) {
+                throw new CircuitInstableException("Registres instables après " + Circuit.MAX_ITERATIONS + " mises à jour");
+            }
+            stabiliser(progress);
+        }
+    }
+
+    /**
+     * @return les valeurs des fils à la fin de la dernière simulation réussie
+     */
+    public SimulationSnapshot getInstantane() {
+        return instantane;
+    }
+
+    /**
+     * Enregistre désormais, après chaque simulation réussie, la valeur de tous
+     * les fils actuels du circuit ; chaque simulation compte pour un pas.
+     *
+     * @return l'enregistreur
+     */
+    public WaveformRecorder demarrerEnregistrement() {
+        synchronized (netlist) {
+            if (enregistreur != null) {
+                enregistreur.detacher();
+            }
+            enregistreur = new WaveformRecorder(netlist.getWires());
+            pas = 0;
+            return enregistreur;
+        }
+    }
+
+    /**
+     * Arrête l'enregistrement.
+     *
+     * @return l'enregistreur arrêté, ou null s'il n'y en avait pas
+     */
+    public WaveformRecorder arreterEnregistrement() {
+        synchronized (netlist) {
+            WaveformRecorder arrete = enregistreur;
+            if (arrete != null) {
+                arrete.detacher();
+            }
+            enregistreur = null;
+            return arrete;
+        }
+    }
+
+    /**
+     * Oublie le dernier instantané, par exemple après avoir vidé le circuit.
+     */
+    public void effacerInstantane() {
+        instantane = SimulationSnapshot.VIDE;
+    }
+
+    /**
+     * @param led une LED du circuit
+     * @return la valeur reçue par la LED lors de la dernière simulation
+     */
+    public QuadBool lire(LedLight led) {
+        Wire fil = led.getInputs().get(0).getWire();
+        return fil != null ? fil.getValue() : QuadBool.NOTHING;
+    }
+
+    /**
+     * @return la valeur de chaque LED, dans l'ordre de {@link Netlist#getSorties()}
+     */
+    public List<QuadBool> lireSorties() {
+        List<QuadBool> valeurs = new ArrayList<>();
+        for (LedLight led : netlist.getSorties()) {
+            valeurs.add(lire(led));
+        }
+        return valeurs;
+    }
+
+    public Netlist getNetlist() {
+        return netlist;
+    }
+
+    public SimulationEngine getEngine() {
+        return engine;
+    }
+
+    /**
+     * Change de moteur ; le nouveau moteur repartira d'une compilation neuve.
+     *
+     * @param engine le moteur de simulation
+     */
+    public void setEngine(SimulationEngine engine) {
+        synchronized (netlist) {
+            this.engine = engine;
+            this.revision = -1;
+        }
+    }
+}
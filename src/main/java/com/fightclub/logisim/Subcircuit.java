@@ -0,0 +1,143 @@
+package com.fightclub.logisim;
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.util.ArrayList;
+
+/**
+ * Instance d'un sous-circuit importé depuis un fichier. Ses entrées sont les
+ * constantes du circuit importé et ses sorties ses LED, dans l'ordre de leur
+ * définition (voir {@link SubcircuitDefinition}). L'instance ne garde qu'une
+ * référence vers la définition partagée : importer mille fois le même
+ * fichier ne le lit et ne le compile qu'une fois.
+ */
+public class Subcircuit extends MemoryComponent {
+
+    // -------------- ATTRIBUTS --------------//
+
+    private static final int ESPACEMENT = 20; // distance entre deux broches
+    private static final int MARGE = 5;
+
+    private final SubcircuitDefinition definition;
+
+    // -------------- CONSTRUCTEUR --------------//
+
+    /**
+     * Construit une instance de sous-circuit centrée sur la position donnée.
+     *
+     * @param id         identifiant unique du composant
+     * @param x          position horizontale
+     * @param y          position verticale
+     * @param definition définition partagée du sous-circuit
+     */
+    public Subcircuit(int id, int x, int y, SubcircuitDefinition definition) {
+        super(id, x, y);
+        this.definition = definition;
+        this.type = ComponentType.SUBCIRCUIT;
+        initConnectionPoints();
+    }
+
+    // -------------- MÉTHODES --------------//
+
+    /**
+     * @return la définition partagée par toutes les instances du même fichier
+     */
+    public SubcircuitDefinition getDefinition() {
+        return definition;
+    }
+
+    @Override
+    protected int getHeight() {
+        int broches = Math.max(definition.getNombreEntrees(), definition.getNombreSorties());
+        return Math.max(super.getHeight(), ESPACEMENT * (broches + 1));
+    }
+
+    /**
+     * Initialise les points de connexion : les entrées réparties sur le côté
+     * d'entrée, les sorties sur le côté opposé.
+     */
+    @Override
+    protected void initConnectionPoints() {
+        int nbEntrees = definition.getNombreEntrees();
+        int nbSorties = definition.getNombreSorties();
+        inputs = new ArrayList<>(nbEntrees);
+        outputs = new ArrayList<>(nbSorties);
+
+        int w = getWidth();
+        int h = getHeight();
+
+        for (int i = 1; i <= nbEntrees; i++) {
+            switch (getRotationAngle()) {
+                case 0 -> inputs.add(new ConnectionPoint(this, getX() - MARGE, getY() + i * h / (nbEntrees + 1), true));
+                case 90 -> inputs.add(new ConnectionPoint(this, getX() + i * w / (nbEntrees + 1), getY() - MARGE, true));
+                case 180 -> inputs.add(new ConnectionPoint(this, getX() + w + MARGE, getY() + i * h / (nbEntrees + 1), true));
+                case 270 -> inputs.add(new ConnectionPoint(this, getX() + i * w / (nbEntrees + 1), getY() + h + MARGE, true));
+            }
+        }
+        for (int j = 1; j <= nbSorties; j++) {
+            switch (getRotationAngle()) {
+                case 0 -> outputs.add(new ConnectionPoint(this, getX() + w + MARGE, getY() + j * h / (nbSorties + 1), false));
+                case 90 -> outputs.add(new ConnectionPoint(this, getX() + j * w / (nbSorties + 1), getY() + h + MARGE, false));
+                case 180 -> outputs.add(new ConnectionPoint(this, getX() - MARGE, getY() + j * h / (nbSorties + 1), false));
+                case 270 -> outputs.add(new ConnectionPoint(this, getX() + j * w / (nbSorties + 1), getY() - MARGE, false));
+            }
+        }
+    }
+
+    /**
+     * Évalue le sous-circuit comme un bloc, par le netlist compilé de sa
+     * définition.
+     *
+     * @param entrees valeurs des broches d'entrée
+     * @return valeurs des broches de sortie
+     */
+    @Override
+    public QuadBool[] evaluerSorties(QuadBool[] entrees) {
+        return definition.evaluer(entrees);
+    }
+
+    /**
+     * @return la valeur de la première sortie, NOTHING si le sous-circuit n'en a pas
+     */
+    @Override
+    public QuadBool evaluer(QuadBool[] entrees) {
+        QuadBool[] sorties = evaluerSorties(entrees);
+        return sorties.length > 0 ? sorties[0] : QuadBool.NOTHING;
+    }
+
+    @Override
+    public void compute() {
+        QuadBool[] sorties = evaluerSorties(getInputValues());
+        for (int j = 0; j < sorties.length; j++) {
+            for (Wire fil : outputs.get(j).getWires()) {
+                fil.setValue(sorties[j]);
+            }
+        }
+    }
+
+    @Override
+    public void draw(Graphics g, boolean isSelected) {
+        Graphics2D g2d = (Graphics2D) g;
+        AffineTransform oldTransform = g2d.getTransform();
+
+        g2d.translate(getX() + getWidth() / 2, getY() + getHeight() / 2);
+        g2d.rotate(Math.toRadians(getRotationAngle()));
+        g2d.translate(-getWidth() / 2, -getHeight() / 2);
+
+        // Boîte du sous-circuit
+        g2d.setColor(new Color(200, 215, 235));
+        g2d.fillRect(0, 0, getWidth(), getHeight());
+        g2d.setColor(Color.BLACK);
+        g2d.drawRect(0, 0, getWidth(), getHeight());
+
+        // Nom de la définition
+        Wire.drawString(g2d, definition.getNom(), 0, 0, getWidth(), getHeight());
+
+        g2d.setTransform(oldTransform);
+        drawConnectionPoints(g2d);
+
+        if (isSelected) {
+            g2d.setColor(Color.BLUE);
+            g2d.drawRect(getX(), getY(), getWidth(), getHeight());
+        }
+    }
+}
@@ -0,0 +1,444 @@
+package com.fightclub.logisim;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Définition d'un sous-circuit : un circuit sauvegardé (voir
+ * {@link Netlist#exportAsText()}) dont les {@link ConstantComponent} sont les
+ * broches d'entrée et les {@link LedLight} les broches de sortie, dans l'ordre
+ * des composants du fichier.
+ *
+ * Le fichier n'est lu, aplati et compilé qu'une fois : toutes les instances
+ * ({@link Subcircuit}) d'un même fichier partagent la même définition,
+ * conservée dans un cache indexé par chemin canonique et relue seulement si
+ * le fichier a été modifié depuis.
+ *
+ * Une instance peut être simulée de deux façons :
+ * <ul>
+ * <li>comme un bloc, par le netlist compilé et optimisé de la définition
+ * ({@link #evaluer(QuadBool[])}) : c'est ce que font les moteurs qui
+ * parcourent les objets. Les instances recevant souvent les mêmes entrées,
+ * le résultat est mémoïsé (voir {@link #activerCache(int)}) ;</li>
+ * <li>aplatie, ses portes étant recopiées dans le circuit englobant
+ * ({@link #aplatir(List, List, List, List)}) : c'est ce que fait
+ * {@link CompiledNetlist#compiler(List, List)}.</li>
+ * </ul>
+ */
+public final class SubcircuitDefinition {
+
+    // -------------- CACHE --------------//
+
+    private static final Map<File, SubcircuitDefinition> CACHE = new HashMap<>();
+    private static final Set<File> EN_CHARGEMENT = new HashSet<>(); // détection des inclusions récursives
+
+    // -------------- MÉMOÏSATION --------------//
+
+    /** Capacité du cache créé au chargement d'une définition. */
+    public static final int CAPACITE_CACHE = 1024;
+
+    /** Jusqu'à ce nombre d'entrées, la table des 4^n vecteurs est précalculée. */
+    public static final int ENTREES_TABLE_COMPLETE = 6;
+
+    // -------------- ATTRIBUTS --------------//
+
+    private final File fichier;
+    private final long dateModification;
+    private final String nom;
+    private final int nombreEntrees;
+    private final int nombreSorties;
+
+    // Modèle aplati : constantes, LED et portes sans sous-circuit, et ses nets
+    // réduits aux points de ces composants
+    private final List<MemoryComponent> composants = new ArrayList<>();
+    private final List<NetModele> nets = new ArrayList<>();
+
+    // Broches dont le net intérieur ne peut pas être fusionné avec le net extérieur
+    private final boolean[] entreesIsolees;
+    private final boolean[] sortiesIsolees;
+
+    private final CompiledNetlist compile; // partagé par toutes les instances
+
+    // Mémoïsation, protégée comme le netlist par le verrou de compile
+    private MemoCache cache;
+    private long[] table; // sorties empaquetées pour chaque vecteur d'entrées
+    private long succesTable;
+
+    /**
+     * Net du modèle aplati. Les broches des instances imbriquées, qui ne
+     * servaient qu'à relier les fils, en sont retirées.
+     */
+    private static final class NetModele {
+        final List<ConnectionPoint> pilotes = new ArrayList<>(1);
+        final List<ConnectionPoint> lecteurs = new ArrayList<>(2);
+    }
+
+    // -------------- CONSTRUCTION --------------//
+
+    private SubcircuitDefinition(File fichier, long dateModification, Netlist netlist) {
+        if (!netlist.getRegistres().isEmpty()) {
+            // L'évaluation d'un bloc est sans état et mémoïsée
+            throw new IllegalArgumentException("Registre dans un sous-circuit : " + fichier.getName());
+        }
+        this.fichier = fichier;
+        this.dateModification = dateModification;
+        String nomFichier = fichier.getName();
+        int extension = nomFichier.lastIndexOf('.');
+        this.nom = extension > 0 ? nomFichier.substring(0, extension) : nomFichier;
+        this.nombreEntrees = netlist.getEntrees().size();
+        this.nombreSorties = netlist.getSorties().size();
+
+        List<Wire> fils = new ArrayList<>();
+        aplatir(netlist.getComponents(), netlist.getWires(), composants, fils);
+        this.compile = new NetlistOptimizer(CompiledNetlist.compiler(composants, fils)).optimiser();
+
+        Set<MemoryComponent> reels = Collections.newSetFromMap(new IdentityHashMap<>());
+        reels.addAll(composants);
+        Map<ConnectionPoint, NetModele> netDe = new IdentityHashMap<>();
+        for (Net net : Net.construire(fils)) {
+            NetModele modele = new NetModele();
+            for (ConnectionPoint pilote : net.getPilotes()) {
+                if (reels.contains(pilote.getParentComponent())) {
+                    modele.pilotes.add(pilote);
+                    netDe.put(pilote, modele);
+                }
+            }
+            for (ConnectionPoint lecteur : net.getLecteurs()) {
+                if (reels.contains(lecteur.getParentComponent())) {
+                    modele.lecteurs.add(lecteur);
+                    netDe.put(lecteur, modele);
+                }
+            }
+            // Un net sans pilote laisse ses lecteurs à NOTHING, comme une entrée non connectée
+            if (!modele.pilotes.isEmpty() && !modele.lecteurs.isEmpty()) {
+                nets.add(modele);
+            }
+        }
+
+        // Une entrée est isolée si son net a d'autres pilotes que la constante ;
+        // une sortie, si son net n'est pas piloté par une seule porte ou
+        // contient une autre LED
+        this.entreesIsolees = new boolean[nombreEntrees];
+        this.sortiesIsolees = new boolean[nombreSorties];
+        int entree = 0, sortie = 0;
+        for (MemoryComponent comp : composants) {
+            if (comp instanceof ConstantComponent) {
+                NetModele net = netDe.get(comp.getOutputs().get(0));
+                entreesIsolees[entree++] = net != null && net.pilotes.size() > 1;
+            } else if (comp instanceof LedLight) {
+                NetModele net = netDe.get(comp.getInputs().get(0));
+                if (net != null) {
+                    long leds = net.lecteurs.stream().filter(l -> l.getParentComponent() instanceof LedLight).count();
+                    sortiesIsolees[sortie] = net.pilotes.size() != 1
+                            || net.pilotes.get(0).getParentComponent() instanceof ConstantComponent || leds > 1;
+                }
+                sortie++;
+            }
+        }
+
+        activerCache(CAPACITE_CACHE);
+    }
+
+    /**
+     * Renvoie la définition d'un sous-circuit, lue depuis le fichier lors du
+     * premier appel ou si le fichier a été modifié depuis, et sinon reprise
+     * du cache.
+     *
+     * @param file fichier du circuit sauvegardé
+     * @return la définition partagée
+     * @throws IOException              en cas d'erreur de lecture
+     * @throws IllegalArgumentException si le circuit s'inclut lui-même, ou
+     *                                  contient un registre ou un composant
+     *                                  non compilable
+     */
+    public static synchronized SubcircuitDefinition charger(File file) throws IOException {
+        File fichier = file.getCanonicalFile();
+        long date = fichier.lastModified();
+        SubcircuitDefinition definition = CACHE.get(fichier);
+        if (definition != null && definition.dateModification == date) {
+            return definition;
+        }
+        if (!EN_CHARGEMENT.add(fichier)) {
+            throw new IllegalArgumentException("Sous-circuit récursif : " + fichier.getName());
+        }
+        try {
+            definition = new SubcircuitDefinition(fichier, date, Netlist.importFromFile(fichier));
+        } finally {
+            EN_CHARGEMENT.remove(fichier);
+        }
+        CACHE.put(fichier, definition);
+        return definition;
+    }
+
+    // -------------- SIMULATION --------------//
+
+    /**
+     * Évalue le sous-circuit comme un bloc. Le résultat est lu dans la table
+     * complète ou dans le cache s'il y est ; sinon il est calculé par le
+     * netlist compilé, dont seul le cône d'influence des entrées qui ont
+     * changé depuis l'appel précédent est réévalué.
+     *
+     * @param entrees valeur de chaque broche d'entrée
+     * @return valeur de chaque broche de sortie, ERR partout si le
+     *         sous-circuit contient une boucle instable
+     */
+    public QuadBool[] evaluer(QuadBool[] entrees) {
+        synchronized (compile) {
+            if (table != null) {
+                succesTable++;
+                return MemoCache.depaqueter(table[(int) MemoCache.empaqueter(entrees)], nombreSorties);
+            }
+            if (cache == null) {
+                return calculer(entrees);
+            }
+            long cle = MemoCache.empaqueter(entrees);
+            long valeur = cache.chercher(cle);
+            if (valeur != MemoCache.ABSENT) {
+                return MemoCache.depaqueter(valeur, nombreSorties);
+            }
+            QuadBool[] sorties = calculer(entrees);
+            cache.ajouter(cle, MemoCache.empaqueter(sorties));
+            return sorties;
+        }
+    }
+
+    /**
+     * Calcule les sorties par le netlist compilé ; l'appelant tient le verrou.
+     */
+    private QuadBool[] calculer(QuadBool[] entrees) {
+        QuadBool[] sorties = new QuadBool[nombreSorties];
+        for (int i = 0; i < nombreEntrees; i++) {
+            compile.setEntree(i, entrees[i]);
+        }
+        try {
+            compile.simulerIncremental();
+        } catch (CircuitInstableException e) {
+            Arrays.fill(sorties, QuadBool.ERR);
+            return sorties;
+        }
+        for (int j = 0; j < nombreSorties; j++) {
+            sorties[j] = compile.getSortie(j);
+        }
+        return sorties;
+    }
+
+    /**
+     * Active la mémoïsation des évaluations en bloc, ce qui remet les
+     * compteurs à zéro. Avec au plus {@link #ENTREES_TABLE_COMPLETE} entrées,
+     * la table de tous les vecteurs d'entrée est précalculée et la capacité
+     * est ignorée ; sinon un {@link MemoCache} de la capacité donnée est créé.
+     * Une simulation complète repartant toujours de l'état initial, le
+     * résultat ne dépend que des entrées, même en présence d'une boucle.
+     *
+     * @param capacite nombre maximal de vecteurs mémorisés
+     * @return false si le sous-circuit a trop de broches pour être mémoïsé
+     */
+    public boolean activerCache(int capacite) {
+        synchronized (compile) {
+            desactiverCache();
+            if (nombreEntrees > MemoCache.MAX_VALEURS || nombreSorties > MemoCache.MAX_VALEURS) {
+                return false;
+            }
+            if (nombreEntrees <= ENTREES_TABLE_COMPLETE) {
+                long[] valeurs = new long[1 << 2 * nombreEntrees];
+                for (int cle = 0; cle < valeurs.length; cle++) {
+                    valeurs[cle] = MemoCache.empaqueter(calculer(MemoCache.depaqueter(cle, nombreEntrees)));
+                }
+                table = valeurs;
+            } else {
+                cache = new MemoCache(capacite);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Désactive la mémoïsation : chaque évaluation passe par le netlist compilé.
+     */
+    public void desactiverCache() {
+        synchronized (compile) {
+            cache = null;
+            table = null;
+            succesTable = 0;
+        }
+    }
+
+    /**
+     * Remplace chaque {@link Subcircuit} par une copie des portes de sa
+     * définition. Les fils d'origine sont gardés tels quels, en tête de la
+     * liste ; les fils créés pour les nets de la définition rejoignent le net des fils extérieurs par les
+     * broches de l'instance : une broche d'entrée prend la place de la
+     * constante correspondante, une broche de sortie celle de la LED. Les
+     * broches de l'instance n'étant pas des composants du résultat, elles ne
+     * pilotent aucun net.
+     *
+     * Fusionner ainsi deux nets n'est exact que si un seul côté est piloté,
+     * et par un seul pilote : sinon un pilote intérieur piloterait le circuit
+     * englobant, ou l'inverse, ce que l'évaluation en bloc ne permet pas. La
+     * broche passe alors par un {@link PinBuffer}. Le circuit édité n'est
+     * pas modifié.
+     *
+     * @param components        composants du circuit
+     * @param wires             fils du circuit
+     * @param composantsAplatis reçoit les composants sans sous-circuit
+     * @param filsAplatis       reçoit les fils d'origine puis les fils créés
+     */
+    static void aplatir(List<MemoryComponent> components, List<Wire> wires,
+            List<MemoryComponent> composantsAplatis, List<Wire> filsAplatis) {
+        filsAplatis.addAll(wires);
+
+        // Nombre de pilotes du net extérieur de chaque sortie
+        Map<ConnectionPoint, Integer> pilotesExterieurs = new IdentityHashMap<>();
+        for (Net net : Net.construire(wires)) {
+            for (ConnectionPoint pilote : net.getPilotes()) {
+                pilotesExterieurs.put(pilote, net.getPilotes().size());
+            }
+        }
+
+        int prochainId = -1; // les copies ont des identifiants négatifs, distincts de ceux du circuit
+        for (MemoryComponent comp : components) {
+            if (!(comp instanceof Subcircuit instance)) {
+                composantsAplatis.add(comp);
+                continue;
+            }
+            SubcircuitDefinition definition = instance.getDefinition();
+
+            // Image de chaque point du modèle dans cette instance
+            Map<ConnectionPoint, ConnectionPoint> images = new IdentityHashMap<>();
+            int entree = 0, sortie = 0;
+            for (MemoryComponent modele : definition.composants) {
+                if (modele instanceof ConstantComponent) {
+                    ConnectionPoint broche = instance.getInputs().get(entree);
+                    if (definition.entreesIsolees[entree++]) {
+                        PinBuffer tampon = new PinBuffer(prochainId--);
+                        composantsAplatis.add(tampon);
+                        filsAplatis.add(relier(instance, broche, tampon.getInputs().get(0)));
+                        broche = tampon.getOutputs().get(0);
+                    }
+                    images.put(modele.getOutputs().get(0), broche);
+                } else if (modele instanceof LedLight) {
+                    ConnectionPoint broche = instance.getOutputs().get(sortie);
+                    if (definition.sortiesIsolees[sortie++] || pilotesExterieurs.getOrDefault(broche, 1) > 1) {
+                        PinBuffer tampon = new PinBuffer(prochainId--);
+                        composantsAplatis.add(tampon);
+                        filsAplatis.add(relier(instance, tampon.getOutputs().get(0), broche));
+                        broche = tampon.getInputs().get(0);
+                    }
+                    images.put(modele.getInputs().get(0), broche);
+                } else {
+                    MemoryComponent copie;
+                    if (modele instanceof PinBuffer) {
+                        copie = new PinBuffer(prochainId--);
+                    } else {
+                        int nbEntrees = modele instanceof LogicGate porte ? porte.getNombreEntrees() : 1;
+                        copie = Netlist.creerComposant(modele.getClass().getSimpleName(),
+                                prochainId--, 0, 0, nbEntrees, null);
+                    }
+                    List<ConnectionPoint> points = modele.getAllConnectionPoints();
+                    List<ConnectionPoint> pointsCopie = copie.getAllConnectionPoints();
+                    for (int k = 0; k < points.size(); k++) {
+                        images.put(points.get(k), pointsCopie.get(k));
+                    }
+                    composantsAplatis.add(copie);
+                }
+            }
+
+            // Un fil par lecteur de chaque net, piloté par tous les pilotes du net
+            for (NetModele net : definition.nets) {
+                ConnectionPoint pilote = images.get(net.pilotes.get(0));
+                for (ConnectionPoint lecteur : net.lecteurs) {
+                    Wire fil = relier(instance, pilote, images.get(lecteur));
+                    for (int k = 1; k < net.pilotes.size(); k++) {
+                        fil.addConnection(images.get(net.pilotes.get(k)));
+                    }
+                    filsAplatis.add(fil);
+                }
+            }
+        }
+    }
+
+    /**
+     * Crée un fil entre deux points du circuit aplati. Une broche de
+     * l'instance, de direction inverse au point qu'elle remplace, est ajoutée
+     * comme simple connexion, un point sans composant prenant sa place. Le
+     * fil est connecté à l'entrée d'arrivée quand c'est celle d'une porte :
+     * c'est par elle que le compilateur le retrouve.
+     */
+    private static Wire relier(Subcircuit instance, ConnectionPoint debut, ConnectionPoint fin) {
+        Wire fil = new Wire(
+                debut.isInput() ? new ConnectionPoint(instance, debut.getX(), debut.getY(), false) : debut,
+                fin.isInput() ? fin : new ConnectionPoint(instance, fin.getX(), fin.getY(), true));
+        fil.addConnection(debut);
+        fil.addConnection(fin);
+        if (fin.isInput() && fin.getParentComponent() != instance) {
+            fin.connectWire(fil);
+        }
+        return fil;
+    }
+
+    // -------------- ACCÈS --------------//
+
+    /**
+     * @return le fichier canonique de la définition
+     */
+    public File getFichier() {
+        return fichier;
+    }
+
+    /**
+     * @return le nom affiché sur les instances (nom du fichier sans extension)
+     */
+    public String getNom() {
+        return nom;
+    }
+
+    public int getNombreEntrees() {
+        return nombreEntrees;
+    }
+
+    public int getNombreSorties() {
+        return nombreSorties;
+    }
+
+    /**
+     * @return true si les sorties sont lues dans une table précalculée
+     */
+    public boolean isTableComplete() {
+        synchronized (compile) {
+            return table != null;
+        }
+    }
+
+    /**
+     * @return le nombre d'évaluations servies par la table ou le cache
+     */
+    public long getSuccesCache() {
+        synchronized (compile) {
+            return table != null ? succesTable : cache != null ? cache.getSucces() : 0;
+        }
+    }
+
+    /**
+     * @return le nombre d'évaluations absentes du cache, calculées par le netlist
+     */
+    public long getDefautsCache() {
+        synchronized (compile) {
+            return cache != null ? cache.getDefauts() : 0;
+        }
+    }
+
+    /**
+     * @return le nombre de portes du netlist compilé partagé
+     */
+    public int getNombrePortes() {
+        return compile.getNombrePortes();
+    }
+}
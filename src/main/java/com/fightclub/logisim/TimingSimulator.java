@@ -0,0 +1,347 @@
+package com.fightclub.logisim;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Simulation temporelle à événements discrets d'un {@link CompiledNetlist}.
+ *
+ * Chaque type de porte a un délai de propagation, en unités de temps entières.
+ * Un événement (instant, net, valeur) est créé quand la réévaluation d'une
+ * porte donne une valeur différente de la dernière valeur prévue pour sa
+ * sortie ; il prend effet après le délai de la porte (délai de transport, ce
+ * qui laisse apparaître les glitches). Les événements sont rangés dans une
+ * file de priorité de {@code long} : l'instant dans les 32 bits de poids fort,
+ * puis le net et la valeur, sans aucune allocation pendant la simulation.
+ *
+ * Les portes sans composant (résolution d'un net à plusieurs pilotes, étape
+ * intermédiaire d'une porte à N entrées, tampon de broche) n'ont pas de
+ * délai : elles ne passent pas par la file, leur sortie change au même
+ * instant que leurs entrées.
+ *
+ * Tous les événements d'un même instant sont appliqués, puis les portes sans
+ * délai concernées sont réévaluées jusqu'à ce que leurs sorties ne changent
+ * plus ; enfin chaque porte à délai concernée est réévaluée une seule fois,
+ * sur des entrées déjà stables. Une porte à délai ne planifie donc qu'un
+ * événement par instant. L'instant du dernier changement de chaque net donne
+ * le temps de stabilisation des {@link LedLight}.
+ */
+public class TimingSimulator {
+
+    /** Délais par défaut, en unités de temps. */
+    private static final Map<ComponentType, Integer> DELAIS_PAR_DEFAUT = new EnumMap<>(Map.of(
+            ComponentType.NOT, 1,
+            ComponentType.AND, 2,
+            ComponentType.OR, 2,
+            ComponentType.NAND, 2,
+            ComponentType.NOR, 2,
+            ComponentType.XOR, 3,
+            ComponentType.XNOR, 3));
+
+    // -------------- ATTRIBUTS --------------//
+
+    private final CompiledNetlist netlist;
+    private final int[] delais; // délai de chaque porte
+    private final int[] pilotes; // porte pilotant chaque net, -1 pour les entrées
+    private final byte[] valeurs; // valeur courante de chaque net
+    private final byte[] prevues; // dernière valeur planifiée de chaque net
+    private final long[] derniersChangements; // instant du dernier changement de chaque net
+
+    private long[] tas = new long[64]; // événements : instant << 32 | net << 2 | valeur
+    private int tailleTas;
+    private final int[] sales; // portes à délai à réévaluer à l'instant courant
+    private final int[] immediates; // portes sans délai à réévaluer, en pile
+    private final boolean[] estSale;
+    private int nbSales;
+    private int nbImmediates;
+
+    private long temps; // instant courant
+    private long debut; // instant de la dernière stimulation
+    private long horizon; // durée maximale sans stabilisation
+    private long nbEvenements;
+
+    // -------------- CONSTRUCTEUR --------------//
+
+    /**
+     * Crée un simulateur avec les délais par défaut (NOT : 1, AND/OR/NAND : 2, XOR : 3).
+     *
+     * @param netlist le netlist à simuler ; il n'est pas modifié
+     */
+    public TimingSimulator(CompiledNetlist netlist) {
+        this(netlist, DELAIS_PAR_DEFAUT);
+    }
+
+    /**
+     * @param netlist le netlist à simuler ; il n'est pas modifié
+     * @param delais  délai de propagation de chaque type de porte (au moins 1)
+     * @throws IllegalArgumentException si un délai manque ou est inférieur à 1
+     */
+    public TimingSimulator(CompiledNetlist netlist, Map<ComponentType, Integer> delais) {
+        this.netlist = netlist;
+        int nbPortes = netlist.getNombrePortes();
+        int nbNets = netlist.getNombreNets();
+        this.delais = new int[nbPortes];
+        this.pilotes = new int[nbNets];
+        Arrays.fill(pilotes, -1);
+        int delaiMax = 1;
+        for (int p = 0; p < nbPortes; p++) {
+            pilotes[netlist.sorties[p]] = p;
+            if (netlist.getPorte(p) == null) {
+                continue; // délai nul : résolution d'un net ou étape interne d'une porte à N entrées
+            }
+            ComponentType type = netlist.getPorte(p).getType();
+            Integer delai = delais.get(type);
+            if (delai == null || delai < 1) {
+                throw new IllegalArgumentException("Délai invalide pour " + type + " : " + delai);
+            }
+            this.delais[p] = delai;
+            delaiMax = Math.max(delaiMax, delai);
+        }
+        this.valeurs = new byte[nbNets];
+        this.prevues = new byte[nbNets];
+        this.derniersChangements = new long[nbNets];
+        this.sales = new int[nbPortes];
+        this.immediates = new int[nbPortes];
+        this.estSale = new boolean[nbPortes];
+        this.horizon = (long) Math.max(nbPortes, Circuit.MAX_ITERATIONS) * delaiMax;
+    }
+
+    // -------------- STIMULATION --------------//
+
+    /**
+     * Remet tous les nets à NOTHING à l'instant 0, applique la valeur des
+     * constantes et l'état des registres et simule jusqu'à stabilisation.
+     *
+     * @return l'instant de stabilisation
+     * @throws CircuitInstableException si le circuit ne se stabilise pas avant l'horizon
+     */
+    public long initialiser() throws CircuitInstableException {
+        Arrays.fill(valeurs, (byte) QuadBool.CODE_NOTHING);
+        Arrays.fill(prevues, (byte) QuadBool.CODE_NOTHING);
+        Arrays.fill(derniersChangements, 0L);
+        Arrays.fill(estSale, false);
+        nbSales = 0;
+        nbImmediates = 0;
+        tailleTas = 0;
+        temps = 0;
+        debut = 0;
+        nbEvenements = 0;
+        for (int i = 0; i < netlist.getNombreEntrees(); i++) {
+            planifier(0, netlist.netsEntrees[i], netlist.getConstante(i).getOutputValue().code());
+        }
+        for (int k = 0; k < netlist.getNombreEtats(); k++) {
+            planifier(0, netlist.netsEtats[k], netlist.getEtat(k).code());
+        }
+        for (int k = 0; k < netlist.netsConstantes.length; k++) {
+            planifier(0, netlist.netsConstantes[k], netlist.valeursConstantes[k]);
+        }
+        // Toutes les portes sont évaluées une première fois, même sans entrée connectée
+        for (int p = 0; p < netlist.getNombrePortes(); p++) {
+            marquer(p);
+        }
+        return executer();
+    }
+
+    /**
+     * Change une entrée à l'instant courant et simule jusqu'à stabilisation.
+     *
+     * @param i      indice de l'entrée (constante)
+     * @param valeur nouvelle valeur
+     * @return la durée de stabilisation après le changement
+     * @throws CircuitInstableException si le circuit ne se stabilise pas avant l'horizon
+     */
+    public long changerEntree(int i, QuadBool valeur) throws CircuitInstableException {
+        debut = temps;
+        planifier(temps, netlist.netsEntrees[i], valeur.code());
+        return executer() - debut;
+    }
+
+    // -------------- NOYAU --------------//
+
+    /**
+     * Traite les événements jusqu'à ce que la file soit vide.
+     *
+     * @return l'instant du dernier événement traité
+     */
+    private long executer() throws CircuitInstableException {
+        do {
+            if (tailleTas > 0) {
+                long instant = tas[0] >>> 32;
+                if (instant - debut > horizon) {
+                    tailleTas = 0;
+                    throw new CircuitInstableException("Pas de stabilisation après " + horizon + " unités de temps");
+                }
+                temps = instant;
+                // Application de tous les événements de cet instant
+                while (tailleTas > 0 && tas[0] >>> 32 == instant) {
+                    long evenement = extraire();
+                    int net = (int) evenement >>> 2;
+                    byte valeur = (byte) (evenement & 3);
+                    nbEvenements++;
+                    if (valeurs[net] != valeur) {
+                        valeurs[net] = valeur;
+                        derniersChangements[net] = instant;
+                        for (int k = netlist.debutLecteurs[net]; k < netlist.debutLecteurs[net + 1]; k++) {
+                            marquer(netlist.lecteurs[k]);
+                        }
+                    }
+                }
+            }
+            reevaluer();
+        } while (tailleTas > 0);
+        return temps;
+    }
+
+    /**
+     * Réévalue les portes marquées : d'abord les portes sans délai, dont la
+     * sortie change aussitôt, jusqu'à stabilisation ; puis une fois chaque
+     * porte à délai, qui planifie le changement de sa sortie.
+     */
+    private void reevaluer() {
+        while (nbImmediates > 0) {
+            int p = immediates[--nbImmediates];
+            estSale[p] = false;
+            byte resultat = evaluer(p);
+            int net = netlist.sorties[p];
+            if (valeurs[net] != resultat) {
+                valeurs[net] = resultat;
+                prevues[net] = resultat;
+                derniersChangements[net] = temps;
+                nbEvenements++;
+                for (int k = netlist.debutLecteurs[net]; k < netlist.debutLecteurs[net + 1]; k++) {
+                    marquer(netlist.lecteurs[k]);
+                }
+            }
+        }
+        for (int s = 0; s < nbSales; s++) {
+            int p = sales[s];
+            estSale[p] = false;
+            byte resultat = evaluer(p);
+            int net = netlist.sorties[p];
+            if (prevues[net] != resultat) {
+                planifier(temps + delais[p], net, resultat);
+            }
+        }
+        nbSales = 0;
+    }
+
+    /**
+     * @return la sortie de la porte p sur les valeurs courantes des nets
+     */
+    private byte evaluer(int p) {
+        int debutEntrees = netlist.debutEntrees[p];
+        int a = valeurs[netlist.entrees[debutEntrees]];
+        int b = netlist.debutEntrees[p + 1] - debutEntrees > 1
+                ? valeurs[netlist.entrees[debutEntrees + 1]]
+                : QuadBool.CODE_NOTHING;
+        return CompiledNetlist.TABLES[netlist.opcodes[p]][a << 2 | b];
+    }
+
+    private void marquer(int p) {
+        if (!estSale[p]) {
+            estSale[p] = true;
+            if (delais[p] == 0) {
+                immediates[nbImmediates++] = p;
+            } else {
+                sales[nbSales++] = p;
+            }
+        }
+    }
+
+    private void planifier(long instant, int net, int valeur) {
+        prevues[net] = (byte) valeur;
+        if (tailleTas == tas.length) {
+            tas = Arrays.copyOf(tas, tas.length * 2);
+        }
+        long evenement = instant << 32 | (long) net << 2 | valeur;
+        // Remontée dans le tas binaire
+        int i = tailleTas++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (tas[parent] <= evenement) {
+                break;
+            }
+            tas[i] = tas[parent];
+            i = parent;
+        }
+        tas[i] = evenement;
+    }
+
+    private long extraire() {
+        long racine = tas[0];
+        long dernier = tas[--tailleTas];
+        // Descente dans le tas binaire
+        int i = 0;
+        int moitie = tailleTas >>> 1;
+        while (i < moitie) {
+            int enfant = 2 * i + 1;
+            if (enfant + 1 < tailleTas && tas[enfant + 1] < tas[enfant]) {
+                enfant++;
+            }
+            if (dernier <= tas[enfant]) {
+                break;
+            }
+            tas[i] = tas[enfant];
+            i = enfant;
+        }
+        tas[i] = dernier;
+        return racine;
+    }
+
+    // -------------- RÉSULTATS --------------//
+
+    /**
+     * @return l'instant courant de la simulation
+     */
+    public long getTemps() {
+        return temps;
+    }
+
+    /**
+     * @return le nombre d'événements traités depuis {@link #initialiser()}
+     */
+    public long getNombreEvenements() {
+        return nbEvenements;
+    }
+
+    /**
+     * @param o indice de la sortie (LED)
+     * @return la valeur lue par la LED o
+     */
+    public QuadBool getSortie(int o) {
+        return QuadBool.fromCode(valeurs[netlist.netsSorties[o]]);
+    }
+
+    /**
+     * @param o indice de la sortie (LED)
+     * @return la durée entre la dernière stimulation et le dernier changement
+     *         de la LED o, ou 0 si elle n'a pas changé depuis
+     */
+    public long getTempsStabilisation(int o) {
+        return Math.max(0, derniersChangements[netlist.netsSorties[o]] - debut);
+    }
+
+    /**
+     * @return le temps de stabilisation de chaque LED, dans l'ordre du netlist
+     */
+    public Map<LedLight, Long> getTempsStabilisation() {
+        Map<LedLight, Long> resultat = new LinkedHashMap<>();
+        for (int o = 0; o < netlist.getNombreSorties(); o++) {
+            resultat.put(netlist.getLed(o), getTempsStabilisation(o));
+        }
+        return resultat;
+    }
+
+    /**
+     * @param horizon durée maximale de simulation après une stimulation, au-delà
+     *                de laquelle le circuit est déclaré instable
+     */
+    public void setHorizon(long horizon) {
+        this.horizon = horizon;
+    }
+
+    public CompiledNetlist getNetlist() {
+        return netlist;
+    }
+}
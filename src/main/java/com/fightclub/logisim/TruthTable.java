@@ -0,0 +1,216 @@
+package com.fightclub.logisim;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Table de vérité exhaustive d'un circuit.
+ *
+ * Chaque {@link ConstantComponent} est traité comme une entrée libre et les
+ * 2^n affectations FALSE/TRUE sont énumérées. Dans l'affectation numéro x,
+ * l'entrée i vaut TRUE si le bit i de x vaut 1. Les valeurs des
+ * {@link LedLight} sont stockées bit à bit, sous forme des deux plans du code
+ * de {@link QuadBool} (voir {@link BitslicedSimulator}).
+ *
+ * Le calcul est réparti sur tous les cœurs, par paquets de 64 affectations.
+ */
+public class TruthTable {
+
+    /** Nombre maximal d'entrées (2^30 lignes). */
+    public static final int MAX_ENTREES = 30;
+
+    /** Motifs des 6 premières entrées dans un paquet de 64 affectations. */
+    private static final long[] MOTIFS = {
+            0xAAAAAAAAAAAAAAAAL,
+            0xCCCCCCCCCCCCCCCCL,
+            0xF0F0F0F0F0F0F0F0L,
+            0xFF00FF00FF00FF00L,
+            0xFFFF0000FFFF0000L,
+            0xFFFFFFFF00000000L
+    };
+
+    /** Caractère exporté pour chaque code de QuadBool. */
+    private static final char[] SYMBOLES = { 'Z', '0', '1', 'X' };
+
+    // -------------- ATTRIBUTS --------------//
+
+    private final int nbEntrees;
+    private final String[] nomsEntrees;
+    private final String[] nomsSorties;
+    private final long[][] faux; // faux[o][mot] : plan « faux » de la sortie o
+    private final long[][] vrai; // vrai[o][mot] : plan « vrai » de la sortie o
+
+    // -------------- CONSTRUCTEUR --------------//
+
+    private TruthTable(int nbEntrees, String[] nomsEntrees, String[] nomsSorties, long[][] faux, long[][] vrai) {
+        this.nbEntrees = nbEntrees;
+        this.nomsEntrees = nomsEntrees;
+        this.nomsSorties = nomsSorties;
+        this.faux = faux;
+        this.vrai = vrai;
+    }
+
+    // -------------- GÉNÉRATION --------------//
+
+    /**
+     * Génère la table de vérité d'un netlist en utilisant tous les cœurs.
+     *
+     * @param netlist le netlist compilé du circuit
+     * @return la table de vérité
+     * @throws CircuitInstableException si le circuit ne converge pas pour une affectation
+     * @throws IllegalArgumentException si le circuit a plus de {@link #MAX_ENTREES} entrées
+     */
+    public static TruthTable generer(CompiledNetlist netlist) throws CircuitInstableException {
+        return generer(netlist, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Génère la table de vérité d'un netlist avec un nombre de threads donné.
+     *
+     * @param netlist le netlist compilé du circuit
+     * @param threads nombre de threads de calcul
+     * @return la table de vérité
+     * @throws CircuitInstableException si le circuit ne converge pas pour une affectation
+     */
+    public static TruthTable generer(CompiledNetlist netlist, int threads) throws CircuitInstableException {
+        int n = netlist.getNombreEntrees();
+        if (n > MAX_ENTREES) {
+            throw new IllegalArgumentException("Trop d'entrées pour une table exhaustive : " + n);
+        }
+        int nbSorties = netlist.getNombreSorties();
+        int nbPaquets = n <= 6 ? 1 : 1 << (n - 6);
+        long[][] faux = new long[nbSorties][nbPaquets];
+        long[][] vrai = new long[nbSorties][nbPaquets];
+
+        // Découpage en tranches de paquets, chacune simulée par son propre simulateur
+        int taille = Math.max(1, nbPaquets / (threads * 4));
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Void>> taches = new ArrayList<>();
+            for (int debut = 0; debut < nbPaquets; debut += taille) {
+                int premier = debut;
+                int fin = Math.min(nbPaquets, debut + taille);
+                taches.add(pool.submit(() -> {
+                    calculer(netlist, premier, fin, faux, vrai);
+                    return null;
+                }));
+            }
+            for (Future<Void> tache : taches) {
+                tache.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Génération interrompue", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof CircuitInstableException instable) {
+                throw instable;
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+
+        String[] nomsEntrees = new String[n];
+        for (int i = 0; i < n; i++) {
+            nomsEntrees[i] = "C" + netlist.getConstante(i).getId();
+        }
+        String[] nomsSorties = new String[nbSorties];
+        for (int o = 0; o < nbSorties; o++) {
+            nomsSorties[o] = "L" + netlist.getLed(o).getId();
+        }
+        return new TruthTable(n, nomsEntrees, nomsSorties, faux, vrai);
+    }
+
+    /**
+     * Simule les paquets [premier, fin) et range les plans de sortie.
+     */
+    private static void calculer(CompiledNetlist netlist, int premier, int fin, long[][] faux, long[][] vrai)
+            throws CircuitInstableException {
+        BitslicedSimulator simulateur = new BitslicedSimulator(netlist);
+        int n = netlist.getNombreEntrees();
+        long[] fauxEntrees = new long[n];
+        long[] vraiEntrees = new long[n];
+
+        for (int paquet = premier; paquet < fin; paquet++) {
+            for (int i = 0; i < n; i++) {
+                long plan = i < 6 ? MOTIFS[i] : -((paquet >>> (i - 6)) & 1L);
+                vraiEntrees[i] = plan;
+                fauxEntrees[i] = ~plan;
+            }
+            simulateur.simulerPlans(fauxEntrees, vraiEntrees);
+            for (int o = 0; o < faux.length; o++) {
+                faux[o][paquet] = simulateur.getPlanFaux(o);
+                vrai[o][paquet] = simulateur.getPlanVrai(o);
+            }
+        }
+    }
+
+    // -------------- ACCÈS --------------//
+
+    public int getNombreEntrees() {
+        return nbEntrees;
+    }
+
+    public int getNombreSorties() {
+        return nomsSorties.length;
+    }
+
+    public long getNombreLignes() {
+        return 1L << nbEntrees;
+    }
+
+    /**
+     * @param ligne numéro de l'affectation (bit i = valeur de l'entrée i)
+     * @param o     indice de la sortie
+     * @return la valeur de la LED o pour cette affectation
+     */
+    public QuadBool getSortie(long ligne, int o) {
+        int mot = (int) (ligne >>> 6);
+        int bit = (int) (ligne & 63);
+        int code = (int) ((faux[o][mot] >>> bit) & 1 | ((vrai[o][mot] >>> bit) & 1) << 1);
+        return QuadBool.fromCode(code);
+    }
+
+    // -------------- EXPORT --------------//
+
+    /**
+     * Exporte la table dans un fichier texte : une ligne d'en-tête avec le nom
+     * des entrées (C + id de la constante) et des sorties (L + id de la LED),
+     * puis une ligne par affectation. Les valeurs sont notées 0, 1, Z (NOTHING)
+     * et X (ERR).
+     *
+     * @param fichier fichier de destination
+     * @throws IOException en cas d'erreur d'écriture
+     */
+    public void exporter(Path fichier) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(fichier)) {
+            writer.write(String.join(" ", nomsEntrees));
+            writer.write(" | ");
+            writer.write(String.join(" ", nomsSorties));
+            writer.newLine();
+
+            int nbSorties = nomsSorties.length;
+            char[] ligne = new char[2 * nbEntrees + 2 + 2 * nbSorties];
+            Arrays.fill(ligne, ' ');
+            ligne[2 * nbEntrees] = '|';
+            for (long x = 0; x < getNombreLignes(); x++) {
+                for (int i = 0; i < nbEntrees; i++) {
+                    ligne[2 * i] = ((x >>> i) & 1) == 1 ? '1' : '0';
+                }
+                for (int o = 0; o < nbSorties; o++) {
+                    ligne[2 * nbEntrees + 2 + 2 * o] = SYMBOLES[getSortie(x, o).code()];
+                }
+                writer.write(ligne, 0, ligne.length - 1);
+                writer.newLine();
+            }
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package com.fightclub.logisim;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Enregistre l'évolution de la valeur de fils au fil des pas de simulation
+ * (tics d'horloge, simulations successives) et l'exporte au format Value
+ * Change Dump (.vcd), lisible par GTKWave et la plupart des visualiseurs.
+ *
+ * Seuls les changements sont conservés, dans un tampon circulaire de
+ * {@code long} : l'instant dans les 32 bits de poids fort, puis l'indice du
+ * signal et le code de sa valeur. Quand le tampon est plein, les changements
+ * les plus anciens sont intégrés à l'état initial de la fenêtre conservée.
+ * Un enregistrement ne fait donc aucune allocation.
+ *
+ * Chaque fil prévient l'enregistreur quand sa valeur change (voir
+ * {@link Wire#setValue}) : un pas ne parcourt que les fils modifiés depuis le
+ * pas précédent, pas tous les fils. Son coût suit celui de la simulation
+ * incrémentale, qui ne réévalue que le cône d'influence des entrées
+ * modifiées. Un fil ne prévient qu'un enregistreur à la fois.
+ */
+public class WaveformRecorder {
+
+    /** Capacité par défaut du tampon, en changements. */
+    public static final int CAPACITE_PAR_DEFAUT = 1 << 20;
+
+    /** Caractère VCD pour chaque code de QuadBool : NOTHING devient z, ERR devient x. */
+    private static final char[] SYMBOLES = { 'z', '0', '1', 'x' };
+
+    // -------------- ATTRIBUTS --------------//
+
+    private final Wire[] fils;
+    private final byte[] courantes; // dernière valeur enregistrée de chaque signal
+    private final byte[] initiales; // valeur de chaque signal au début de la fenêtre conservée
+    private final long[] tampon; // changements : instant << 32 | signal << 2 | valeur
+    private final int[] modifies; // signaux dont la valeur a changé depuis le dernier pas
+    private final boolean[] estModifie;
+    private int nbModifies;
+    private int premier; // indice du plus ancien changement conservé
+    private int taille;
+    private long debutFenetre = -1; // instant du début de la fenêtre, -1 avant le premier pas
+    private long dernierInstant;
+
+    // -------------- CONSTRUCTEUR --------------//
+
+    /**
+     * @param fils fils à enregistrer
+     */
+    public WaveformRecorder(List<Wire> fils) {
+        this(fils, CAPACITE_PAR_DEFAUT);
+    }
+
+    /**
+     * @param fils     fils à enregistrer
+     * @param capacite nombre maximal de changements conservés
+     */
+    public WaveformRecorder(List<Wire> fils, int capacite) {
+        if (fils.size() >= 1 << 30) {
+            throw new IllegalArgumentException("Trop de signaux : " + fils.size());
+        }
+        this.fils = fils.toArray(new Wire[0]);
+        this.courantes = new byte[this.fils.length];
+        this.initiales = new byte[this.fils.length];
+        this.tampon = new long[capacite];
+        this.modifies = new int[this.fils.length];
+        this.estModifie = new boolean[this.fils.length];
+        attacher();
+    }
+
+    // -------------- ENREGISTREMENT --------------//
+
+    /**
+     * Enregistre la valeur courante des fils qui ont changé depuis le pas précédent.
+     *
+     * @param instant numéro du pas (croissant, inférieur à 2^31)
+     */
+    public void enregistrer(long instant) {
+        if (debutFenetre < 0) {
+            debutFenetre = instant;
+        }
+        dernierInstant = instant;
+        for (int k = 0; k < nbModifies; k++) {
+            int s = modifies[k];
+            estModifie[s] = false;
+            // Un fil revenu à sa valeur précédente au cours du pas n'est pas un changement
+            int valeur = fils[s].getValue().code();
+            if (courantes[s] != valeur) {
+                courantes[s] = (byte) valeur;
+                ajouter(instant << 32 | (long) s << 2 | valeur);
+            }
+        }
+        nbModifies = 0;
+    }
+
+    /**
+     * Note que la valeur d'un fil a changé ; appelé par {@link Wire#setValue}.
+     *
+     * @param s indice du signal
+     */
+    void signaler(int s) {
+        if (!estModifie[s]) {
+            estModifie[s] = true;
+            modifies[nbModifies++] = s;
+        }
+    }
+
+    private void toutSignaler() {
+        for (int s = 0; s < fils.length; s++) {
+            signaler(s);
+        }
+    }
+
+    /**
+     * Suit les fils : ils préviennent cet enregistreur de leurs changements.
+     * Le pas suivant relit tous les fils, pour rattraper les changements
+     * survenus pendant que l'enregistreur était détaché.
+     */
+    public void attacher() {
+        for (int s = 0; s < fils.length; s++) {
+            fils[s].suivre(this, s);
+        }
+        toutSignaler();
+    }
+
+    /**
+     * Cesse de suivre les fils : ils ne préviennent plus cet enregistreur.
+     */
+    public void detacher() {
+        for (Wire fil : fils) {
+            if (fil.getEnregistreur() == this) {
+                fil.suivre(null, 0);
+            }
+        }
+    }
+
+    private void ajouter(long changement) {
+        if (taille == tampon.length) {
+            // Tampon plein : le plus ancien changement rejoint l'état initial
+            long ancien = tampon[premier];
+            initiales[(int) ancien >>> 2] = (byte) (ancien & 3);
+            debutFenetre = ancien >>> 32;
+            premier = (premier + 1) % tampon.length;
+            taille--;
+        }
+        tampon[(premier + taille) % tampon.length] = changement;
+        taille++;
+    }
+
+    /**
+     * Oublie tout l'enregistrement ; le prochain pas repart de valeurs NOTHING.
+     */
+    public void effacer() {
+        Arrays.fill(courantes, (byte) QuadBool.CODE_NOTHING);
+        Arrays.fill(initiales, (byte) QuadBool.CODE_NOTHING);
+        premier = 0;
+        taille = 0;
+        debutFenetre = -1;
+        toutSignaler();
+    }
+
+    /**
+     * @return le nombre de changements conservés
+     */
+    public int getNombreChangements() {
+        return taille;
+    }
+
+    public int getNombreSignaux() {
+        return fils.length;
+    }
+
+    // -------------- EXPORT VCD --------------//
+
+    /**
+     * Exporte l'enregistrement dans un fichier VCD.
+     *
+     * @param fichier fichier de destination
+     * @param echelle durée d'un pas, par exemple « 1 ns »
+     * @throws IOException en cas d'erreur d'écriture
+     */
+    public void exporterVcd(Path fichier, String echelle) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(fichier)) {
+            exporterVcd(writer, echelle);
+        }
+    }
+
+    /**
+     * Écrit l'enregistrement au format VCD : un signal d'un bit par fil, nommé
+     * d'après ses extrémités (W + id source + id destination + entrée).
+     *
+     * @param writer  destination
+     * @param echelle durée d'un pas, par exemple « 1 ns »
+     * @throws IOException en cas d'erreur d'écriture
+     */
+    public void exporterVcd(Writer writer, String echelle) throws IOException {
+        BufferedWriter out = writer instanceof BufferedWriter bw ? bw : new BufferedWriter(writer);
+        String[] codes = new String[fils.length];
+        out.write("$date " + LocalDateTime.now() + " $end\n");
+        out.write("$version Logic Circuit Designer $end\n");
+        out.write("$timescale " + echelle + " $end\n");
+        out.write("$scope module circuit $end\n");
+        for (int s = 0; s < fils.length; s++) {
+            codes[s] = code(s);
+            out.write("$var wire 1 " + codes[s] + " " + nom(fils[s]) + " $end\n");
+        }
+        out.write("$upscope $end\n");
+        out.write("$enddefinitions $end\n");
+
+        long instant = Math.max(0, debutFenetre);
+        out.write("#" + instant + "\n");
+        out.write("$dumpvars\n");
+        for (int s = 0; s < fils.length; s++) {
+            out.write(SYMBOLES[initiales[s]]);
+            out.write(codes[s]);
+            out.write('\n');
+        }
+        out.write("$end\n");
+
+        for (int k = 0; k < taille; k++) {
+            long changement = tampon[(premier + k) % tampon.length];
+            long t = changement >>> 32;
+            if (t != instant) {
+                instant = t;
+                out.write("#" + instant + "\n");
+            }
+            out.write(SYMBOLES[(int) (changement & 3)]);
+            out.write(codes[(int) changement >>> 2]);
+            out.write('\n');
+        }
+        if (dernierInstant > instant) {
+            out.write("#" + dernierInstant + "\n");
+        }
+        out.flush();
+    }
+
+    /**
+     * @return l'identifiant VCD du signal s, en base 94 sur les caractères imprimables
+     */
+    private static String code(int s) {
+        StringBuilder sb = new StringBuilder();
+        do {
+            sb.append((char) ('!' + s % 94));
+            s /= 94;
+        } while (s > 0);
+        return sb.toString();
+    }
+
+    private static String nom(Wire fil) {
+        MemoryComponent source = fil.getStart().getParentComponent();
+        MemoryComponent destination = fil.getEnd().getParentComponent();
+        return "W" + source.getId() + "_" + destination.getId() + "_" + destination.getInputs().indexOf(fil.getEnd());
+    }
+}
@@ -15,6 +15,10 @@ import javax.swing.border.*;
 public class Window {
     private JFrame frame; //fenetre principale
     private Circuit circuit; //zone de dessin du circuit;
+    private SimulationClock horloge; //tics de simulation, hors de l'EDT
+    private JComboBox<String> speedSelector;
+    private JLabel clockLabel;
+    private JLabel statusLabel;
 
     /**
      * Constructs the main application window and initializes all components.
@@ -38,11 +42,13 @@ public class Window {
         splitPane.setDividerLocation(200); // Largeur augmentée pour les images
 
         circuit = new Circuit();
+        horloge = new SimulationClock(circuit);
         splitPane.setLeftComponent(createSidebar());
         splitPane.setBorder(BorderFactory.createEmptyBorder());
         splitPane.setRightComponent(circuit);
 
         frame.add(splitPane);
+        connecterSimulation();
         frame.setVisible(true);
         setupShortcuts();
     }
@@ -72,12 +78,7 @@ public class Window {
         AbstractAction spaceAction = new AbstractAction() {
             @Override
             public void actionPerformed(ActionEvent e) {
-                try {
-                    circuit.simuler();
-                    circuit.repaint();
-                } catch (CircuitInstableException ex) {
-                    JOptionPane.showMessageDialog(frame, "Circuit instable !", "Erreur", JOptionPane.ERROR_MESSAGE);
-                }
+                circuit.getWorker().lancer();
             }
         };
     
@@ -130,8 +131,11 @@ public class Window {
             { "OR", "Porte OU" },
             { "NOT", "Porte NON" },
             { "XOR", "Porte OU-X" },
-            { "NAND", "Porte NON-ET" }
+            { "NAND", "Porte NON-ET" },
+            { "NOR", "Porte NON-OU" },
+            { "XNOR", "Porte NON-OU-X" }
     });
+    addInputCountSelector(sidebar);
 
     // Section Entrées/Sorties
     addSection(sidebar, "ENTRÉES/SORTIES", new String[][] {
@@ -140,6 +144,13 @@ public class Window {
             { "LED", "Sortie LED" }
     });
 
+    // Section Mémoire : la largeur d'un registre est le nombre d'entrées choisi
+    addSection(sidebar, "MÉMOIRE", new String[][] {
+            { "CLK", "Horloge, inversée à chaque tic" },
+            { "DFF", "Bascule D (front montant)" },
+            { "REG", "Registre N bits (N : entrées des portes)" }
+    });
+
     // Section Outils
     addSection(sidebar, "OUTILS", new String[][] {
             { "DELETE", "Mode Suppression" }
@@ -189,6 +200,26 @@ public class Window {
         parent.add(Box.createVerticalStrut(20));
     }
 
+    /**
+     * Adds the selector of the number of inputs used for the next gates.
+     * @param parent The container panel to which the selector is added
+     */
+    private void addInputCountSelector(JPanel parent) {
+        JLabel label = new JLabel("Entrées des portes");
+        label.setFont(new Font("Segoe UI", Font.BOLD, 11));
+        label.setForeground(new Color(170, 170, 170));
+        label.setAlignmentX(0.0F);
+        parent.add(label);
+
+        JSpinner spinner = new JSpinner(new SpinnerNumberModel(2, LogicGate.MIN_ENTREES, LogicGate.MAX_ENTREES, 1));
+        spinner.setToolTipText("Nombre d'entrées des portes AND, OR, XOR, NAND, NOR et XNOR ajoutées");
+        spinner.setMaximumSize(new Dimension(100, 30));
+        spinner.setAlignmentX(0.0F);
+        spinner.addChangeListener(e -> circuit.setNombreEntrees((Integer) spinner.getValue()));
+        parent.add(spinner);
+        parent.add(Box.createVerticalStrut(20));
+    }
+
     /**
      * Creates a stylized JButton with hover effects.
      * @param type The command type or label
@@ -253,12 +284,16 @@ public class Window {
         JButton saveButton = createToolButton("Enregistrer", "Sauvegarder");
         JButton openButton = createToolButton("Importer", "Ouvrir un circuit");
         JButton importComponentButton = createToolButton("IMPORTER COMPOSANT", "Ajouter un composant depuis un fichier");
+        JButton truthTableButton = createToolButton("Table de vérité", "Exporter la table de vérité du circuit");
+        JButton waveformButton = createToolButton("Chronogramme", "Enregistrer l'évolution des fils et l'exporter en VCD");
     
         // Ajout au panneau de gauche
         leftPanel.add(helpButton);
         leftPanel.add(saveButton);
         leftPanel.add(openButton);
         leftPanel.add(importComponentButton);
+        leftPanel.add(truthTableButton);
+        leftPanel.add(waveformButton);
     
         // --------- CENTRE : Simulation ---------
     
@@ -280,18 +315,34 @@ public class Window {
         rightPanel.setBackground(new Color(26, 42, 84));
         rightPanel.setLayout(new FlowLayout(FlowLayout.RIGHT, 5, 2));
     
-        JComboBox<String> speedSelector = new JComboBox<>(new String[] { "1x", "2x", "5x", "Max" });
+        speedSelector = new JComboBox<>(SimulationClock.VITESSES);
         speedSelector.setPrototypeDisplayValue("1x");
         speedSelector.setMaximumSize(new Dimension(60, 25));
         speedSelector.setFont(new Font("Segoe UI", Font.PLAIN, 11));
     
-        JLabel clockLabel = new JLabel("Horloge: 0");
+        JComboBox<SimulationEngine> engineSelector = new JComboBox<>(new SimulationEngine[] {
+                new CompiledEngine(),
+                new FixedPointEngine(),
+                new EventDrivenEngine(),
+                new LevelizedEngine(),
+                new ParallelEngine(),
+                new BytecodeEngine()
+        });
+        engineSelector.setMaximumSize(new Dimension(120, 25));
+        engineSelector.setFont(new Font("Segoe UI", Font.PLAIN, 11));
+        JLabel moteur = new JLabel("Moteur:");
+        moteur.setForeground(Color.WHITE);
+
+        clockLabel = new JLabel("Horloge: 0");
         clockLabel.setForeground(Color.WHITE);
-        JLabel statusLabel = new JLabel("Statut: Arrêté");
+        statusLabel = new JLabel("Statut: Arrêté");
         statusLabel.setForeground(Color.WHITE);
         JLabel vitesse = new JLabel("Vitesse:");
         vitesse.setForeground(Color.WHITE);
     
+        rightPanel.add(moteur);
+        rightPanel.add(engineSelector);
+        rightPanel.add(Box.createHorizontalStrut(15));
         rightPanel.add(vitesse);
         rightPanel.add(speedSelector);
         rightPanel.add(Box.createHorizontalStrut(15));
@@ -317,16 +368,13 @@ public class Window {
                 statusLabel.setText("Statut: En cours");
             }
         
-            try {
-                circuit.simuler();
-                circuit.repaint();
-            } catch (CircuitInstableException ex) {
-                JOptionPane.showMessageDialog(frame, "Circuit instable !", "Erreur", JOptionPane.ERROR_MESSAGE);
-            }
+            horloge.demarrer();
         });
         
     
         pauseButton.addActionListener(e -> {
+            horloge.arreter();
+            circuit.getWorker().annuler();
             circuit.setPaused(true);
             statusLabel.setText("Statut: En pause");
         });
@@ -340,19 +388,70 @@ public class Window {
                 JOptionPane.YES_NO_OPTION
             );
             if (confirm == JOptionPane.YES_OPTION) {
+                horloge.arreter();
+                horloge.remettreAZero();
+                circuit.setPaused(true);
                 circuit.clearAll();         // 👈 à implémenter dans la classe Circuit
                 circuit.repaint();          // Redessiner la zone de circuit
                 statusLabel.setText("Statut: Réinitialisé");
             }
         });
         
+        speedSelector.addActionListener(e -> horloge.setVitesse((String) speedSelector.getSelectedItem()));
+        engineSelector.addActionListener(e -> circuit.setEngine((SimulationEngine) engineSelector.getSelectedItem()));
+
         saveButton.addActionListener(e -> sauvegarderCircuit());
         openButton.addActionListener(e -> chargerCircuit());
-        //importComponentButton.addActionListener(e -> importComponent());
+        truthTableButton.addActionListener(e -> exporterTableDeVerite());
+        waveformButton.addActionListener(e -> basculerChronogramme(waveformButton));
+        importComponentButton.addActionListener(e -> importerComposant());
     
         return menuBar;
     }
 
+    /**
+     * Relie l'horloge et le thread de simulation au compteur et au statut de la
+     * barre de menu.
+     */
+    private void connecterSimulation() {
+        horloge.setSurAffichage(cycles -> clockLabel.setText("Horloge: " + cycles));
+        horloge.setSurInstabilite(ex -> {
+            circuit.setPaused(true);
+            statusLabel.setText("Statut: Instable");
+            JOptionPane.showMessageDialog(frame, "Circuit instable !\n" + ex.getMessage(), "Erreur", JOptionPane.ERROR_MESSAGE);
+        });
+        horloge.setSurErreur(ex -> {
+            circuit.setPaused(true);
+            statusLabel.setText("Statut: Erreur");
+            JOptionPane.showMessageDialog(frame, "Erreur de simulation !\n" + ex.getMessage(), "Erreur", JOptionPane.ERROR_MESSAGE);
+        });
+        circuit.getWorker().setObservateur(new SimulationWorker.Observateur() {
+            @Override
+            public void etat(SimulationWorker.Etat etat, String message) {
+                switch (etat) {
+                    case EN_COURS -> statusLabel.setText("Statut: En cours");
+                    case STABLE -> statusLabel.setText("Statut: Stable");
+                    case ANNULE -> statusLabel.setText("Statut: Annulé");
+                    case INSTABLE -> {
+                        statusLabel.setText("Statut: Instable");
+                        JOptionPane.showMessageDialog(frame, "Circuit instable !\n" + message, "Erreur", JOptionPane.ERROR_MESSAGE);
+                    }
+                    case ERREUR -> {
+                        statusLabel.setText("Statut: Erreur");
+                        JOptionPane.showMessageDialog(frame, "Erreur de simulation !\n" + message, "Erreur", JOptionPane.ERROR_MESSAGE);
+                    }
+                }
+            }
+
+            @Override
+            public void progression(int iteration, int maximum) {
+                if (maximum > 1) {
+                    statusLabel.setText("Statut: En cours (" + iteration + "/" + maximum + ")");
+                }
+            }
+        });
+    }
+
     /**
      * Creates a button for the menu bar with specific icon and tooltip.
      * @param iconText The icon or text label of the button
@@ -415,6 +514,104 @@ private void chargerCircuit() {
 }
 
 
+/**
+ * Importe un circuit sauvegardé comme sous-circuit : ses constantes deviennent
+ * des entrées et ses LED des sorties. Les clics suivants placent des instances
+ * qui partagent toutes la même définition compilée.
+ */
+private void importerComposant() {
+    JFileChooser fileChooser = new JFileChooser();
+    fileChooser.setDialogTitle("Importer un composant");
+
+    if (fileChooser.showOpenDialog(frame) != JFileChooser.APPROVE_OPTION) {
+        return;
+    }
+    try {
+        SubcircuitDefinition definition = SubcircuitDefinition.charger(fileChooser.getSelectedFile());
+        circuit.enableAddingSubcircuit(definition);
+        statusLabel.setText("Statut: Placer " + definition.getNom() + " (" + definition.getNombreEntrees()
+                + " entrées, " + definition.getNombreSorties() + " sorties)");
+    } catch (Exception e) {
+        JOptionPane.showMessageDialog(frame, "Erreur lors de l'import : " + e.getMessage(), "Erreur", JOptionPane.ERROR_MESSAGE);
+    }
+}
+
+
+/**
+ * Génère la table de vérité du circuit (toutes les constantes sont des entrées
+ * libres) en arrière-plan, puis l'enregistre dans le fichier choisi.
+ */
+private void exporterTableDeVerite() {
+    JFileChooser fileChooser = new JFileChooser();
+    fileChooser.setDialogTitle("Exporter la table de vérité");
+
+    if (fileChooser.showSaveDialog(frame) != JFileChooser.APPROVE_OPTION) {
+        return;
+    }
+    File fichier = fileChooser.getSelectedFile();
+    CompiledNetlist netlist;
+    try {
+        netlist = circuit.compilerNetlist();
+    } catch (IllegalArgumentException e) {
+        JOptionPane.showMessageDialog(frame, "Erreur : " + e.getMessage(), "Erreur", JOptionPane.ERROR_MESSAGE);
+        return;
+    }
+
+    new SwingWorker<Long, Void>() {
+        @Override
+        protected Long doInBackground() throws Exception {
+            TruthTable table = TruthTable.generer(netlist);
+            table.exporter(fichier.toPath());
+            return table.getNombreLignes();
+        }
+
+        @Override
+        protected void done() {
+            try {
+                long lignes = get();
+                JOptionPane.showMessageDialog(frame, "Table de vérité exportée (" + lignes + " lignes) !", "Succès", JOptionPane.INFORMATION_MESSAGE);
+            } catch (Exception e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                String message = cause instanceof CircuitInstableException ? "Circuit instable !" : cause.getMessage();
+                JOptionPane.showMessageDialog(frame, "Erreur lors de l'export : " + message, "Erreur", JOptionPane.ERROR_MESSAGE);
+            }
+        }
+    }.execute();
+}
+
+
+/**
+ * Démarre l'enregistrement du chronogramme, ou l'arrête et propose de
+ * l'exporter au format VCD (un pas par simulation).
+ */
+private void basculerChronogramme(JButton bouton) {
+    Simulator simulateur = circuit.getSimulator();
+    WaveformRecorder enregistreur = simulateur.arreterEnregistrement();
+    if (enregistreur == null) {
+        simulateur.demarrerEnregistrement();
+        bouton.setText("Arrêter chronogramme");
+        return;
+    }
+    bouton.setText("Chronogramme");
+
+    JFileChooser fileChooser = new JFileChooser();
+    fileChooser.setDialogTitle("Exporter le chronogramme (VCD)");
+    if (fileChooser.showSaveDialog(frame) != JFileChooser.APPROVE_OPTION) {
+        return;
+    }
+    String chemin = fileChooser.getSelectedFile().getAbsolutePath();
+    if (!chemin.toLowerCase().endsWith(".vcd")) {
+        chemin += ".vcd";
+    }
+    try {
+        enregistreur.exporterVcd(new File(chemin).toPath(), "1 ns");
+        JOptionPane.showMessageDialog(frame, "Chronogramme exporté (" + enregistreur.getNombreChangements() + " changements) !", "Succès", JOptionPane.INFORMATION_MESSAGE);
+    } catch (IOException e) {
+        JOptionPane.showMessageDialog(frame, "Erreur lors de l'export : " + e.getMessage(), "Erreur", JOptionPane.ERROR_MESSAGE);
+    }
+}
+
+
     /**
      * 
      */
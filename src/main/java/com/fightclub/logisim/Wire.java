@@ -8,7 +8,8 @@ import java.util.List;
  * Représente un fil reliant deux points de connexion dans un circuit logique.
  * Le fil est défini par un point de départ (output) et un point d'arrivée
  * (input).
- * Il peut également avoir plusieurs connexions intermédiaires.
+ * Il peut également avoir plusieurs connexions intermédiaires ; les sorties
+ * supplémentaires pilotent le fil avec la sortie de départ (voir {@link Net}).
  */
 public class Wire {
 
@@ -34,6 +35,13 @@ public class Wire {
      */
     private ConnectionPoint end;
 
+    /**
+     * Enregistreur prévenu des changements de valeur, null si le fil n'est pas
+     * enregistré, et indice du fil dans cet enregistreur.
+     */
+    private WaveformRecorder enregistreur;
+    private int signal;
+
     // -------------- CONSTRUCTEUR --------------//
 
     /**
@@ -68,14 +76,33 @@ public class Wire {
     }
 
     /**
-     * Définit la valeur logique du fil.
+     * Définit la valeur logique du fil ; si elle change, l'enregistreur qui
+     * suit le fil en est prévenu.
      * 
      * @param value valeur à attribuer
      */
     public void setValue(QuadBool value) {
+        if (value != this.value && enregistreur != null) {
+            enregistreur.signaler(signal);
+        }
         this.value = value;
     }
 
+    /**
+     * Fait suivre le fil par un enregistreur, qui remplace le précédent.
+     * 
+     * @param enregistreur enregistreur à prévenir, null pour ne plus en prévenir aucun
+     * @param signal       indice du fil dans l'enregistreur
+     */
+    void suivre(WaveformRecorder enregistreur, int signal) {
+        this.enregistreur = enregistreur;
+        this.signal = signal;
+    }
+
+    WaveformRecorder getEnregistreur() {
+        return enregistreur;
+    }
+
     /**
      * Retourne la liste des points connectés au fil.
      * 
@@ -131,6 +158,20 @@ public class Wire {
         }
     }
 
+    /**
+     * @return les sorties qui pilotent ce fil : la sortie de départ, puis les
+     *         sorties ajoutées avec {@link #addConnection(ConnectionPoint)}
+     */
+    public List<ConnectionPoint> getPilotes() {
+        List<ConnectionPoint> pilotes = new ArrayList<>(1);
+        for (ConnectionPoint point : connections) {
+            if (!point.isInput()) {
+                pilotes.add(point);
+            }
+        }
+        return pilotes;
+    }
+
     // -------------- MÉTHODES --------------//
 
     /**
@@ -144,6 +185,18 @@ public class Wire {
         }
     }
 
+    /**
+     * Retire un point de connexion supplémentaire ; le départ et l'arrivée
+     * restent connectés.
+     * 
+     * @param point point à retirer
+     */
+    public void removeConnection(ConnectionPoint point) {
+        if (point != start && point != end) {
+            connections.remove(point);
+        }
+    }
+
     // -------------- INTERFACE GRAPHIQUE --------------//
 
     /**
@@ -152,6 +205,20 @@ public class Wire {
      * @param g contexte graphique
      */
     public void draw(Graphics g) {
+        draw(g, value);
+    }
+
+    /**
+     * Dessine le fil avec sa valeur dans un instantané de simulation.
+     * 
+     * @param g       contexte graphique
+     * @param valeurs instantané publié par la dernière simulation
+     */
+    public void draw(Graphics g, SimulationSnapshot valeurs) {
+        draw(g, valeurs.valeur(this));
+    }
+
+    private void draw(Graphics g, QuadBool value) {
         Graphics2D g2d = (Graphics2D) g;
         g2d.setStroke(new BasicStroke(3));
         
@@ -171,7 +238,11 @@ public class Wire {
                 break;
         }
         
-        g2d.drawLine(start.getX(), start.getY(), end.getX(), end.getY());
+        for (ConnectionPoint point : connections) {
+            if (point != end) {
+                g2d.drawLine(point.getX(), point.getY(), end.getX(), end.getY());
+            }
+        }
     }
 
     // Méthode statique pour dessiner du texte centré
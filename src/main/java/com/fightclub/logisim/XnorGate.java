@@ -0,0 +1,81 @@
+package com.fightclub.logisim;
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Path2D;
+
+/**
+ * La classe XnorGate représente une porte logique XNOR dans un circuit.
+ * Elle hérite de la classe LogicGate et définit le calcul de la sortie et le
+ * dessin de la porte.
+ */
+public class XnorGate extends LogicGate {
+
+    // --------------constructeur--------------//
+
+    /**
+     * Construit une porte XNOR à N entrées.
+     * 
+     * @param id        identifiant unique de la porte
+     * @param x         position horizontale
+     * @param y         position verticale
+     * @param nbEntrees nombre d'entrées
+     */
+    public XnorGate(int id, int x, int y, int nbEntrees) {
+        super(id, x, y, ComponentType.XNOR, nbEntrees, 5);
+    }
+
+    // --------------méthodes--------------//
+
+    /**
+     * Calcule la sortie de la porte XNOR : négation du XOR de toutes les entrées.
+     * 
+     * @param entrees valeurs des entrées
+     * @return valeur de sortie
+     */
+    @Override
+    public QuadBool evaluer(QuadBool[] entrees) {
+        return QuadBool.xnor(entrees);
+    }
+
+    @Override
+    public void draw(Graphics g, boolean isSelected) {
+        Graphics2D g2d = (Graphics2D) g;
+        AffineTransform oldTransform = g2d.getTransform();
+    
+        // Transformation pour rotation
+        g2d.translate(getX() + getWidth() / 2, getY() + getHeight() / 2);
+        g2d.rotate(Math.toRadians(getRotationAngle()));
+        g2d.translate(-getWidth() / 2, -getHeight() / 2);
+    
+        int width = 58; // largeur principale, bulle comprise : 70
+        int height = getHeight();
+        int extraOffset = 8; // décalage pour la 2e courbe de XOR
+        int bubbleDiameter = 14;
+    
+        // Forme principale du XOR remplie
+        g2d.setColor(Color.LIGHT_GRAY);
+        Path2D.Double path = new Path2D.Double();
+        path.moveTo(0, 0);
+        path.curveTo(width / 2.0, 0, width / 2.0, height, 0, height);
+        path.curveTo(width / 3.0, height, width - 10, height, width + 5, height / 2.0);
+        path.curveTo(width - 10, 0, width / 3.0, 0, 0, 0);
+        g2d.fill(path);
+    
+        // Petite courbe supplémentaire du XOR
+        Path2D.Double extraCurve = new Path2D.Double();
+        extraCurve.moveTo(-extraOffset, 0);
+        extraCurve.curveTo(width / 2.0 - extraOffset, 0, width / 2.0 - extraOffset, height, -extraOffset, height);
+        g2d.draw(extraCurve);
+    
+        // Bulle de négation
+        g2d.setColor(Color.WHITE);
+        g2d.fillOval(width + 5, height / 2 - bubbleDiameter / 2, bubbleDiameter, bubbleDiameter);
+        g2d.setColor(Color.BLACK);
+        g2d.drawOval(width + 5, height / 2 - bubbleDiameter / 2, bubbleDiameter, bubbleDiameter);
+    
+        g2d.drawString("XNOR", width / 3, height / 2 + 5);
+    
+        g2d.setTransform(oldTransform);
+        drawConnectionPoints(g2d);
+    }
+}
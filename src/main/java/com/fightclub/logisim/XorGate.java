@@ -2,14 +2,13 @@ package com.fightclub.logisim;
 import java.awt.*;
 import java.awt.geom.AffineTransform;
 import java.awt.geom.Path2D;
-import java.util.ArrayList;
 
 /**
  * La classe XorGate représente une porte logique XOR dans un circuit.
- * Elle hérite de la classe MemoryComponent et gère les points de connexion,
- * le calcul de la sortie, et le dessin de la porte.
+ * Elle hérite de la classe LogicGate et définit le calcul de la sortie et le
+ * dessin de la porte.
  */
-public class XorGate extends MemoryComponent {
+public class XorGate extends LogicGate {
 
     // --------------constructeur--------------//
 
@@ -26,70 +25,32 @@ public class XorGate extends MemoryComponent {
      * @author Riyad Derguini
      */
     public XorGate(int id, int x, int y, Wire f1, Wire f2) {
-        // Appel du constructeur parent avec un identifiant unique et une position
-        // centrée
-        super(id, x, y);
-        this.type = ComponentType.XOR; // Type de la porte
-        initConnectionPoints();
+        this(id, x, y, 2);
     }
 
-    // --------------méthodes--------------//
-
-
-    @Override
-    protected void initConnectionPoints() {
-        inputs = new ArrayList<>(2);
-        outputs = new ArrayList<>(1);
-        
-        int margin = 5; // Décalage extérieur
-        int w = getWidth();
-        int h = getHeight();
-        
-        switch(getRotationAngle()) {
-            case 0: // Horizontal →
-                inputs.add(new ConnectionPoint(this, getX() - margin, getY() + h/3, true));
-                inputs.add(new ConnectionPoint(this, getX() - margin, getY() + 2*h/3, true));
-                outputs.add(new ConnectionPoint(this, getX() + w + margin, getY() + h/2, false));
-                break;
-                
-            case 90: // Haut ↑
-                inputs.add(new ConnectionPoint(this, getX() + w/3, getY() - margin, true));
-                inputs.add(new ConnectionPoint(this, getX() + 2*w/3, getY() - margin, true));
-                outputs.add(new ConnectionPoint(this, getX() + w/2, getY() + h + margin, false));
-                break;
-                
-            case 180: // Gauche ←
-                inputs.add(new ConnectionPoint(this, getX() + w + margin, getY() + h/3, true));
-                inputs.add(new ConnectionPoint(this, getX() + w + margin, getY() + 2*h/3, true));
-                outputs.add(new ConnectionPoint(this, getX() - margin, getY() + h/2, false));
-                break;
-                
-            case 270: // Bas ↓
-                inputs.add(new ConnectionPoint(this, getX() + w/3, getY() + h + margin, true));
-                inputs.add(new ConnectionPoint(this, getX() + 2*w/3, getY() + h + margin, true));
-                outputs.add(new ConnectionPoint(this, getX() + w/2, getY() - margin, false));
-                break;
-        }
+    /**
+     * Construit une porte XOR à N entrées.
+     * 
+     * @param id        identifiant unique de la porte
+     * @param x         position horizontale
+     * @param y         position verticale
+     * @param nbEntrees nombre d'entrées
+     */
+    public XorGate(int id, int x, int y, int nbEntrees) {
+        super(id, x, y, ComponentType.XOR, nbEntrees, 5);
     }
 
+    // --------------méthodes--------------//
+
     /**
-     * Retourne la valeur de sortie de la porte XOR.
-     * Elle est calculée en effectuant l'opération logique XOR sur les deux entrées.
-     * Elle utilise les méthodes andz et neg de QuadBool pour calculer (A ET NON B)
-     * et (B ET NON A),
-     * puis combine les résultats avec l'opération sup pour obtenir le résultat
-     * final.
-     * La valeur calculée est ensuite assignée à la sortie.
+     * Calcule la sortie de la porte XOR, repliée sur toutes les entrées.
      * 
-     * @return valeur de sortie de la porte XOR
+     * @param entrees valeurs des entrées
+     * @return valeur de sortie
      */
     @Override
-    public void compute() {
-
-        QuadBool aAndNotB = inputs.get(0).getValue().andz(QuadBool.neg(inputs.get(1).getValue()));
-        QuadBool bAndNotA = inputs.get(1).getValue().andz(QuadBool.neg(inputs.get(0).getValue()));
-
-        outputs.get(0).getWire().setValue(aAndNotB.sup(bAndNotA));
+    public QuadBool evaluer(QuadBool[] entrees) {
+        return QuadBool.xor(entrees);
     }
 
     @Override